@@ -0,0 +1,103 @@
+package com.dodge_notification.benchmark;
+
+import com.dodge_notification.model.Notification;
+import com.dodge_notification.model.NotificationStatus;
+import com.dodge_notification.model.NotificationType;
+import com.dodge_notification.model.UuidV7;
+import com.dodge_notification.repository.NotificationBodyRepository;
+import com.dodge_notification.repository.NotificationRepository;
+import lombok.experimental.UtilityClass;
+import org.springframework.mail.MailSender;
+import org.springframework.mail.SimpleMailMessage;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+@UtilityClass
+public class BenchmarkFixtures {
+
+    public static MailSender noopMailSender() {
+        return new MailSender() {
+            @Override
+            public void send(SimpleMailMessage simpleMessage) {
+            }
+
+            @Override
+            public void send(SimpleMailMessage... simpleMessages) {
+            }
+        };
+    }
+
+    /**
+     * Repository stand-in that assigns ids on save and supports nothing else, so
+     * service benchmarks measure the service rather than a database.
+     */
+    public static NotificationRepository savingRepository() {
+        return (NotificationRepository) Proxy.newProxyInstance(
+                NotificationRepository.class.getClassLoader(),
+                new Class<?>[]{NotificationRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "save" -> {
+                        Notification notification = (Notification) args[0];
+                        if (notification.getId() == null) {
+                            notification.setId(UuidV7.generate());
+                        }
+                        yield notification;
+                    }
+                    case "saveAll" -> args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "SavingNotificationRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /**
+     * Body repository stand-in where no body exists yet and every save succeeds.
+     */
+    public static NotificationBodyRepository bodyRepository() {
+        return (NotificationBodyRepository) Proxy.newProxyInstance(
+                NotificationBodyRepository.class.getClassLoader(),
+                new Class<?>[]{NotificationBodyRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findExistingHashes" -> List.of();
+                    case "touch" -> 0;
+                    case "saveAll" -> args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "SavingNotificationBodyRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    public static List<Notification> notifications(int size, List<UUID> users) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Notification> notifications = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            notifications.add(Notification.builder()
+                    .id(UuidV7.generate())
+                    .userId(users.get(random.nextInt(users.size())))
+                    .subject("Your order #%d has shipped".formatted(i))
+                    .body("Hello, your order is on its way and should arrive within three business days.")
+                    .createdOn(LocalDateTime.now().minusSeconds(size - i))
+                    .type(NotificationType.EMAIL)
+                    .status(NotificationStatus.SUCCEEDED)
+                    .deleted(random.nextInt(10) == 0)
+                    .build());
+        }
+        return notifications;
+    }
+
+    public static List<UUID> users(int count) {
+        List<UUID> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(UUID.randomUUID());
+        }
+        return users;
+    }
+}
@@ -0,0 +1,43 @@
+package com.dodge_notification.benchmark;
+
+import com.dodge_notification.dto.DtoMapper;
+import com.dodge_notification.dto.NotificationResponse;
+import com.dodge_notification.model.Notification;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DtoMapperBenchmark {
+
+    @Param({"1000", "100000"})
+    private int size;
+
+    private List<Notification> notifications;
+
+    @Setup
+    public void setUp() {
+        notifications = BenchmarkFixtures.notifications(size, BenchmarkFixtures.users(1000));
+    }
+
+    @Benchmark
+    public List<NotificationResponse> fromNotification() {
+        return notifications.stream().map(DtoMapper::fromNotification).toList();
+    }
+}
@@ -0,0 +1,102 @@
+package com.dodge_notification.benchmark;
+
+import com.dodge_notification.channel.ChannelDispatcher;
+import com.dodge_notification.channel.EmailChannel;
+import com.dodge_notification.channel.StubSmsChannel;
+import com.dodge_notification.dto.NotificationRequest;
+import com.dodge_notification.model.Notification;
+import com.dodge_notification.model.NotificationType;
+import com.dodge_notification.service.BodyStore;
+import com.dodge_notification.service.DefaultPreferenceProvider;
+import com.dodge_notification.service.DigestCoalescer;
+import com.dodge_notification.service.EmailService;
+import com.dodge_notification.service.NotificationDeduplicator;
+import com.dodge_notification.service.NotificationMetrics;
+import com.dodge_notification.service.NotificationStats;
+import com.dodge_notification.service.NotificationWriteBehind;
+import com.dodge_notification.service.PreferenceService;
+import com.dodge_notification.service.RecentNotificationCache;
+import com.dodge_notification.service.RetryPolicy;
+import com.dodge_notification.service.SendRateLimiter;
+import com.dodge_notification.service.TemplateService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.core.env.StandardEnvironment;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link EmailService#sendNotificationEmail} with a no-op mail sender, the stub SMS channel
+ * and an in-memory repository: the cost of preference lookup, entity construction and the
+ * hand-off to the channel's worker pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmailServiceBenchmark {
+
+    @Param({"EMAIL", "SMS"})
+    private NotificationType type;
+
+    private ChannelDispatcher channelDispatcher;
+    private DigestCoalescer digestCoalescer;
+    private EmailService emailService;
+    private NotificationRequest request;
+
+    @Setup
+    public void setUp() {
+        PreferenceService preferenceService =
+                new PreferenceService(new DefaultPreferenceProvider(), 10_000, Duration.ofMinutes(10), Duration.ofMinutes(1));
+        RetryPolicy retryPolicy = new RetryPolicy(5, Duration.ofSeconds(30), Duration.ofHours(1), Duration.ofMinutes(5));
+
+        channelDispatcher = new ChannelDispatcher(
+                List.of(new EmailChannel(BenchmarkFixtures.noopMailSender()), new StubSmsChannel(0)),
+                new StandardEnvironment(), false);
+        digestCoalescer = new DigestCoalescer(false, Duration.ofSeconds(30), 20);
+
+        emailService = new EmailService(channelDispatcher, BenchmarkFixtures.savingRepository(),
+                null, preferenceService, retryPolicy,
+                new NotificationMetrics(new SimpleMeterRegistry(), ObservationRegistry.NOOP),
+                new SendRateLimiter(false, 50, 100, 0.2, 5),
+                new NotificationDeduplicator(false, 1, Duration.ofHours(24), Duration.ofMinutes(10)),
+                new TemplateService(null, 1, Duration.ofMinutes(10), Duration.ofSeconds(30)),
+                new BodyStore(BenchmarkFixtures.bodyRepository(), 10_000, Duration.ofHours(1), 1),
+                null, null,
+                new NotificationStats(null, null, true, 48, 90),
+                new RecentNotificationCache(10_000, 50, Duration.ofMinutes(5)),
+                event -> {
+                },
+                digestCoalescer, new NotificationWriteBehind(null, null, null, false, 100, 10_000, 1000, 30_000));
+        request = new NotificationRequest(UUID.randomUUID(), "Your order has shipped", "It should arrive within three days.", type);
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        channelDispatcher.destroy();
+        digestCoalescer.destroy();
+    }
+
+    @Benchmark
+    public Notification sendNotificationEmail() {
+        return emailService.sendNotificationEmail(request);
+    }
+}
@@ -0,0 +1,50 @@
+package com.dodge_notification.benchmark;
+
+import com.dodge_notification.dto.DtoMapper;
+import com.dodge_notification.dto.NotificationResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"1", "1000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<NotificationResponse> responses;
+
+    @Setup
+    public void setUp() {
+        objectMapper = JsonMapper.builder().addModule(new JavaTimeModule()).build();
+        responses = BenchmarkFixtures.notifications(size, BenchmarkFixtures.users(100)).stream()
+                .map(DtoMapper::fromNotification)
+                .toList();
+    }
+
+    @Benchmark
+    public byte[] serializeResponses() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(responses);
+    }
+}
@@ -0,0 +1,58 @@
+package com.dodge_notification.benchmark;
+
+import com.dodge_notification.service.SendRateLimiter;
+import com.dodge_notification.service.TokenBucket;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a permit check with every core hammering the same limiter. The rates are high
+ * enough that permits are always granted, so this measures the CAS path, not the waits.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(Threads.MAX)
+public class RateLimiterBenchmark {
+
+    private TokenBucket bucket;
+    private SendRateLimiter limiter;
+    private UUID[] users;
+
+    @Setup
+    public void setUp() {
+        bucket = new TokenBucket(1e9, Integer.MAX_VALUE, System::nanoTime);
+        limiter = new SendRateLimiter(true, 1e9, Integer.MAX_VALUE, 1e9, Integer.MAX_VALUE);
+        users = new UUID[10_000];
+        for (int i = 0; i < users.length; i++) {
+            users[i] = UUID.randomUUID();
+        }
+    }
+
+    @Benchmark
+    public long sharedBucket() {
+        return bucket.tryAcquire();
+    }
+
+    @Benchmark
+    public Duration perUserAndGlobal() {
+        return limiter.tryAcquire(users[ThreadLocalRandom.current().nextInt(users.length)]);
+    }
+}
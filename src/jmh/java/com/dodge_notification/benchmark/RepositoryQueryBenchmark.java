@@ -0,0 +1,113 @@
+package com.dodge_notification.benchmark;
+
+import com.dodge_notification.DodgeNotificationApplication;
+import com.dodge_notification.dto.NotificationResponse;
+import com.dodge_notification.model.Notification;
+import com.dodge_notification.repository.NotificationRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repository queries against an in-memory H2 database at several table sizes, plus the
+ * cost of a single insert into a table of that size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryQueryBenchmark {
+
+    private static final int USERS = 10_000;
+    private static final int INSERT_CHUNK = 1_000;
+
+    @Param({"10000", "100000", "1000000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private NotificationRepository notificationRepository;
+    private List<UUID> users;
+    private Notification middle;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(DodgeNotificationApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MYSQL;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.driverClassName=org.h2.Driver",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=" + INSERT_CHUNK,
+                        "notification.mail.pool.enabled=false",
+                        "notification.retry.poll-interval-ms=3600000",
+                        "notification.purge.initial-delay-ms=3600000",
+                        "logging.level.root=WARN")
+                .run();
+        notificationRepository = context.getBean(NotificationRepository.class);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        users = BenchmarkFixtures.users(USERS);
+        for (int inserted = 0; inserted < rows; inserted += INSERT_CHUNK) {
+            List<Notification> chunk = BenchmarkFixtures.notifications(Math.min(INSERT_CHUNK, rows - inserted), users);
+            chunk.forEach(notification -> notification.setId(null));
+            transactionTemplate.executeWithoutResult(status -> notificationRepository.saveAll(chunk));
+
+            if (middle == null && inserted + chunk.size() > rows / 2) {
+                middle = chunk.get(rows / 2 - inserted);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<NotificationResponse> statusFirstPage() {
+        return notificationRepository.findSummaries(Limit.of(100));
+    }
+
+    @Benchmark
+    public List<NotificationResponse> statusPageInTheMiddle() {
+        return notificationRepository.findSummariesAfter(middle.getCreatedOn(), middle.getId(), Limit.of(100));
+    }
+
+    @Benchmark
+    public List<Notification> userNotifications() {
+        return notificationRepository.findAllByUserIdAndDeletedIsFalse(users.get(ThreadLocalRandom.current().nextInt(USERS)));
+    }
+
+    @Benchmark
+    public Notification insert() {
+        Notification notification = BenchmarkFixtures.notifications(1, users).get(0);
+        notification.setId(null);
+        return notificationRepository.save(notification);
+    }
+}
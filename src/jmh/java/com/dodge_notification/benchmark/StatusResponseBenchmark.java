@@ -0,0 +1,137 @@
+package com.dodge_notification.benchmark;
+
+import com.dodge_notification.DodgeNotificationApplication;
+import com.dodge_notification.dto.DtoMapper;
+import com.dodge_notification.dto.NotificationResponse;
+import com.dodge_notification.model.Notification;
+import com.dodge_notification.repository.NotificationRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Heap cost of a status response end to end, from the query against an in-memory H2 database
+ * to the JSON bytes: managed entities copied through {@link DtoMapper}, against the constructor
+ * projections the status queries return now. Rows are loaded inside each operation, so Hibernate's
+ * per-row work is part of what is measured. Compare {@code gc.alloc.rate.norm}, the bytes
+ * allocated per operation, which the benchmark profile reports through {@code -prof gc}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatusResponseBenchmark {
+
+    private static final int TABLE_ROWS = 10_000;
+    private static final int INSERT_CHUNK = 1_000;
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("createdOn"), Sort.Order.desc("id"));
+
+    @Param({"100", "1000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private NotificationRepository notificationRepository;
+    private TransactionTemplate readOnly;
+    private ObjectMapper objectMapper;
+    private ObjectWriter streamingWriter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(DodgeNotificationApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:status-benchmark;MODE=MYSQL;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.driverClassName=org.h2.Driver",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=" + INSERT_CHUNK,
+                        "notification.mail.pool.enabled=false",
+                        "notification.retry.poll-interval-ms=3600000",
+                        "notification.purge.initial-delay-ms=3600000",
+                        "logging.level.root=WARN")
+                .run();
+        notificationRepository = context.getBean(NotificationRepository.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        streamingWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+
+        List<UUID> users = BenchmarkFixtures.users(100);
+        for (int inserted = 0; inserted < TABLE_ROWS; inserted += INSERT_CHUNK) {
+            List<Notification> chunk = BenchmarkFixtures.notifications(INSERT_CHUNK, users);
+            chunk.forEach(notification -> notification.setId(null));
+            transactionTemplate.executeWithoutResult(status -> notificationRepository.saveAll(chunk));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void pageCopiedFromEntities() throws IOException {
+        List<NotificationResponse> copies = notificationRepository.findAll(PageRequest.of(0, rows, NEWEST_FIRST))
+                .map(DtoMapper::fromNotification)
+                .toList();
+        objectMapper.writeValue(OutputStream.nullOutputStream(), copies);
+    }
+
+    @Benchmark
+    public void pageWrittenFromProjections() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), notificationRepository.findSummaries(Limit.of(rows)));
+    }
+
+    @Benchmark
+    public void ndjsonStreamedFromProjections() {
+        readOnly.executeWithoutResult(status -> {
+            try (Stream<NotificationResponse> summaries = notificationRepository.streamSummaries().limit(rows);
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(OutputStream.nullOutputStream())) {
+                generator.setRootValueSeparator(null);
+                Iterator<NotificationResponse> rowsToWrite = summaries.iterator();
+                while (rowsToWrite.hasNext()) {
+                    streamingWriter.writeValue(generator, rowsToWrite.next());
+                    generator.writeRaw('\n');
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,61 @@
+package com.dodge_notification.benchmark;
+
+import com.dodge_notification.service.CompiledTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering a precompiled template against substituting placeholders in the raw source
+ * on every request. Run with {@code -prof gc} to compare allocation per render.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TemplateRenderBenchmark {
+
+    private static final String SOURCE = """
+            Hi {{name}},
+
+            Your order {{order}} has shipped and should arrive on {{date}}.
+            Track it at https://example.com/track/{{order}}.
+
+            Thanks for shopping with us, {{name}}!
+            """;
+
+    private CompiledTemplate compiled;
+    private Map<String, String> variables;
+
+    @Setup
+    public void setUp() {
+        compiled = CompiledTemplate.compile(SOURCE);
+        variables = Map.of("name", "Stoyan", "order", "A-1042", "date", "2024-12-24");
+    }
+
+    @Benchmark
+    public String compiledRender() {
+        return compiled.render(variables);
+    }
+
+    @Benchmark
+    public String replaceOnSource() {
+        String rendered = SOURCE;
+        for (Map.Entry<String, String> variable : variables.entrySet()) {
+            rendered = rendered.replace("{{" + variable.getKey() + "}}", variable.getValue());
+        }
+        return rendered;
+    }
+}
@@ -0,0 +1,146 @@
+package com.dodge_notification.channel;
+
+import com.dodge_notification.exception.DeliveryTimeoutException;
+import com.dodge_notification.model.Notification;
+import com.dodge_notification.model.NotificationType;
+import com.dodge_notification.service.DeliveryQueue;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Routes deliveries to their {@link NotificationChannel}, each behind its own
+ * {@link DeliveryQueue}. Pools are sized per channel from
+ * {@code notification.channels.<type>.*} (falling back to {@code notification.delivery.*}),
+ * so a slow gateway can only exhaust its own workers and never starves another channel.
+ * <p>
+ * Background work is {@link #offer offered} to a pool. Callers waiting on a send run it on
+ * their own thread instead of handing it to the pool and blocking on the result, so a
+ * synchronous request never competes with queued work for the channel's queue. They are
+ * still bounded per channel: at most {@code workers} of them send at once, and a caller that
+ * can't get a slot within the channel's timeout fails with {@link DeliveryTimeoutException}.
+ * Sends issued from a pool's own worker run inline without taking a slot.
+ */
+@Service
+public class ChannelDispatcher implements DisposableBean, MeterBinder {
+
+    private static final ThreadLocal<NotificationType> CURRENT_CHANNEL = new ThreadLocal<>();
+
+    private final Map<NotificationType, ChannelPool> pools = new EnumMap<>(NotificationType.class);
+
+    @Autowired
+    public ChannelDispatcher(List<NotificationChannel> channels, Environment environment,
+                             @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        int defaultWorkers = environment.getProperty("notification.delivery.workers", Integer.class, 8);
+        int defaultCapacity = environment.getProperty("notification.delivery.queue-capacity", Integer.class, 1000);
+        long shutdownTimeoutSeconds = environment.getProperty("notification.delivery.shutdown-timeout-seconds", Long.class, 30L);
+        int defaultBatchSize = environment.getProperty("notification.batch.chunk-size", Integer.class, 100);
+
+        for (NotificationChannel channel : channels) {
+            String name = channel.getType().name().toLowerCase(Locale.ROOT);
+            String prefix = "notification.channels.%s.".formatted(name);
+
+            int workers = environment.getProperty(prefix + "workers", Integer.class, defaultWorkers);
+            DeliveryQueue queue = new DeliveryQueue(name, workers,
+                    environment.getProperty(prefix + "queue-capacity", Integer.class, defaultCapacity),
+                    shutdownTimeoutSeconds, virtualThreads);
+
+            pools.put(channel.getType(), new ChannelPool(channel, queue, new Semaphore(workers),
+                    environment.getProperty(prefix + "batch-size", Integer.class, defaultBatchSize),
+                    environment.getProperty(prefix + "timeout-ms", Long.class, 30_000L)));
+        }
+    }
+
+    /**
+     * Fails with {@link IllegalArgumentException} when no channel delivers {@code type}.
+     */
+    public void requireChannel(NotificationType type) {
+        pool(type);
+    }
+
+    public int batchSize(NotificationType type) {
+        return pool(type).batchSize();
+    }
+
+    public boolean offer(NotificationType type, Runnable task) {
+        return pool(type).queue().offer(() -> {
+            CURRENT_CHANNEL.set(type);
+            try {
+                task.run();
+            } finally {
+                CURRENT_CHANNEL.remove();
+            }
+        });
+    }
+
+    public void send(Notification notification, String recipient) {
+        ChannelPool pool = pool(notification.getType());
+        call(pool, () -> {
+            pool.channel().send(notification, recipient);
+            return null;
+        });
+    }
+
+    public Map<Integer, Exception> sendAll(NotificationType type, List<Notification> notifications, List<String> recipients) {
+        ChannelPool pool = pool(type);
+        return call(pool, () -> pool.channel().sendAll(notifications, recipients));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        pools.values().forEach(pool -> pool.queue().bindTo(registry));
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        for (ChannelPool pool : pools.values()) {
+            pool.queue().destroy();
+        }
+    }
+
+    private <T> T call(ChannelPool pool, Supplier<T> send) {
+        NotificationType type = pool.channel().getType();
+        if (CURRENT_CHANNEL.get() == type) {
+            return send.get();
+        }
+
+        try {
+            if (!pool.callers().tryAcquire(pool.timeoutMillis(), TimeUnit.MILLISECONDS)) {
+                throw new DeliveryTimeoutException(type, pool.timeoutMillis());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DeliveryTimeoutException(type, pool.timeoutMillis());
+        }
+
+        try {
+            return send.get();
+        } finally {
+            pool.callers().release();
+        }
+    }
+
+    private ChannelPool pool(NotificationType type) {
+        ChannelPool pool = type == null ? null : pools.get(type);
+        if (pool == null) {
+            throw new IllegalArgumentException("No channel is configured for %s notifications.".formatted(type));
+        }
+        return pool;
+    }
+
+    private record ChannelPool(NotificationChannel channel, DeliveryQueue queue, Semaphore callers,
+                               int batchSize, long timeoutMillis) {
+    }
+}
@@ -0,0 +1,96 @@
+package com.dodge_notification.channel;
+
+import com.dodge_notification.model.Notification;
+import com.dodge_notification.model.NotificationType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.MailSender;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class EmailChannel implements NotificationChannel {
+
+    private final MailSender mailSender;
+
+    @Autowired
+    public EmailChannel(MailSender mailSender) {
+        this.mailSender = mailSender;
+    }
+
+    @Override
+    public NotificationType getType() {
+        return NotificationType.EMAIL;
+    }
+
+    @Override
+    public void send(Notification notification, String recipient) {
+        mailSender.send(buildMessage(notification, recipient));
+    }
+
+    @Override
+    public Map<Integer, Exception> sendAll(List<Notification> notifications, List<String> recipients) {
+        SimpleMailMessage[] messages = new SimpleMailMessage[notifications.size()];
+        for (int i = 0; i < messages.length; i++) {
+            messages[i] = new IndexedMessage(i);
+            fill(messages[i], notifications.get(i), recipients.get(i));
+        }
+
+        try {
+            mailSender.send(messages);
+            return Map.of();
+        } catch (MailSendException e) {
+            if (e.getFailedMessages().isEmpty()) {
+                throw e;
+            }
+
+            Map<Integer, Exception> failures = new HashMap<>();
+            for (Map.Entry<Object, Exception> failed : e.getFailedMessages().entrySet()) {
+                if (failed.getKey() instanceof IndexedMessage message) {
+                    failures.put(message.index, failed.getValue());
+                }
+            }
+            return failures;
+        }
+    }
+
+    private SimpleMailMessage buildMessage(Notification notification, String recipient) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        fill(message, notification, recipient);
+        return message;
+    }
+
+    private static void fill(SimpleMailMessage message, Notification notification, String recipient) {
+        message.setTo(recipient);
+        message.setSubject(notification.getSubject());
+        message.setText(notification.getBody());
+    }
+
+    /**
+     * Failures come back keyed by message, and {@link SimpleMailMessage} compares by value, so
+     * identical messages in one chunk would share a single entry and one failure would mark every
+     * copy failed. Identity equality keeps one entry per position.
+     */
+    private static final class IndexedMessage extends SimpleMailMessage {
+
+        private final int index;
+
+        private IndexedMessage(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return this == other;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.dodge_notification.channel;
+
+import com.dodge_notification.model.Notification;
+import com.dodge_notification.model.NotificationType;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A transport that can deliver notifications of one {@link NotificationType}. Every
+ * channel bean is picked up by the {@link ChannelDispatcher}, which gives it its own
+ * worker pool.
+ */
+public interface NotificationChannel {
+
+    NotificationType getType();
+
+    void send(Notification notification, String recipient);
+
+    /**
+     * Sends a chunk, in one round trip where the transport supports it.
+     *
+     * @return failures keyed by position in {@code notifications}; throws when nothing was sent
+     */
+    default Map<Integer, Exception> sendAll(List<Notification> notifications, List<String> recipients) {
+        Map<Integer, Exception> failures = new HashMap<>();
+
+        for (int i = 0; i < notifications.size(); i++) {
+            try {
+                send(notifications.get(i), recipients.get(i));
+            } catch (RuntimeException e) {
+                failures.put(i, e);
+            }
+        }
+        return failures;
+    }
+}
@@ -0,0 +1,54 @@
+package com.dodge_notification.channel;
+
+import com.dodge_notification.model.Notification;
+import com.dodge_notification.model.NotificationType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for an SMS gateway: logs the message and optionally sleeps to simulate
+ * gateway latency. Replace it by disabling {@code notification.channels.sms.stub.enabled}
+ * and registering a real {@link NotificationChannel} for {@link NotificationType#SMS}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "notification.channels.sms.stub.enabled", havingValue = "true", matchIfMissing = true)
+public class StubSmsChannel implements NotificationChannel {
+
+    private final long latencyMillis;
+    private final AtomicLong sentCount = new AtomicLong();
+
+    @Autowired
+    public StubSmsChannel(@Value("${notification.channels.sms.stub.latency-ms:0}") long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    @Override
+    public NotificationType getType() {
+        return NotificationType.SMS;
+    }
+
+    @Override
+    public void send(Notification notification, String recipient) {
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while sending an SMS to %s.".formatted(recipient), e);
+            }
+        }
+
+        sentCount.incrementAndGet();
+        log.debug("Stub SMS to %s: %s.".formatted(recipient, notification.getBody()));
+    }
+
+    public long getSentCount() {
+        return sentCount.get();
+    }
+}
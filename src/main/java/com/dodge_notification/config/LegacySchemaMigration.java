@@ -0,0 +1,140 @@
+package com.dodge_notification.config;
+
+import com.dodge_notification.model.Notification;
+import com.dodge_notification.service.BodyStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Data migrations for schema changes that {@code ddl-auto=update} cannot make on its own: it
+ * adds tables and columns but never moves rows or relaxes constraints. Every step first checks
+ * for the legacy table or column, so on a fresh schema it does nothing, and it is safe to run
+ * on every start and from several instances at once.
+ */
+@Slf4j
+@Component
+public class LegacySchemaMigration implements ApplicationRunner {
+
+    private static final int BODY_CHUNK_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BodyStore bodyStore;
+
+    @Autowired
+    public LegacySchemaMigration(JdbcTemplate jdbcTemplate, BodyStore bodyStore) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.bodyStore = bodyStore;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        migrateTemplates();
+        migrateBodies();
+    }
+
+    /**
+     * Templates used to be one mutable row per id in notification_templates; each becomes
+     * version 1 in notification_template_versions.
+     */
+    void migrateTemplates() {
+        if (!tableExists("notification_templates")) {
+            return;
+        }
+
+        try {
+            int copied = jdbcTemplate.update("""
+                    insert into notification_template_versions (template_id, version, subject, body, created_on)
+                    select t.id, 1, t.subject, t.body, t.updated_on from notification_templates t
+                    where not exists (select 1 from notification_template_versions v where v.template_id = t.id)
+                    """);
+            if (copied > 0) {
+                log.info("Copied %d legacy templates to notification_template_versions.".formatted(copied));
+            }
+        } catch (DataIntegrityViolationException e) {
+            log.info("Legacy templates are being copied by another instance.");
+        }
+    }
+
+    /**
+     * Bodies used to live in a NOT NULL notifications.body column. The column is relaxed first
+     * so inserts without it succeed, then every remaining body is moved to notification_bodies
+     * and replaced by its hash, which also covers retries that were pending at the upgrade.
+     */
+    void migrateBodies() {
+        String nullable = columnNullability("notifications", "body");
+        if (nullable == null) {
+            return;
+        }
+        if ("NO".equals(nullable)) {
+            jdbcTemplate.execute("alter table notifications modify body varchar(255) null");
+            log.info("Made the legacy notifications.body column nullable.");
+        }
+
+        int migrated = 0;
+        List<String> bodies;
+        do {
+            bodies = jdbcTemplate.queryForList(
+                    "select distinct body from notifications where body_hash is null and body is not null limit " + BODY_CHUNK_SIZE,
+                    String.class);
+            int updated = 0;
+            for (String body : bodies) {
+                Notification notification = Notification.builder().body(body).build();
+                bodyStore.store(notification);
+                updated += jdbcTemplate.update(
+                        "update notifications set body_hash = ?, body = null where body_hash is null and body = ?",
+                        notification.getBodyHash(), body);
+            }
+            if (!bodies.isEmpty() && updated == 0) {
+                log.warn("Could not move %d legacy notification bodies, leaving them in place.".formatted(bodies.size()));
+                break;
+            }
+            migrated += updated;
+        } while (bodies.size() == BODY_CHUNK_SIZE);
+
+        if (migrated > 0) {
+            log.info("Moved %d legacy notification bodies to notification_bodies.".formatted(migrated));
+        }
+    }
+
+    /**
+     * @return "YES" or "NO" as reported by the driver, or null when the column does not exist
+     */
+    private String columnNullability(String table, String column) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String[] name : new String[][]{{table, column}, {table.toUpperCase(Locale.ROOT), column.toUpperCase(Locale.ROOT)}}) {
+                try (ResultSet columns = metaData.getColumns(connection.getCatalog(), null, name[0], name[1])) {
+                    if (columns.next()) {
+                        return columns.getString("IS_NULLABLE");
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    private boolean tableExists(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String name : new String[]{table, table.toUpperCase(Locale.ROOT)}) {
+                try (ResultSet tables = metaData.getTables(connection.getCatalog(), null, name, new String[]{"TABLE"})) {
+                    if (tables.next()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }));
+    }
+}
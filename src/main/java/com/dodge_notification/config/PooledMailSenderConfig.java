@@ -0,0 +1,45 @@
+package com.dodge_notification.config;
+
+import com.dodge_notification.mail.PooledMailSender;
+import jakarta.mail.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mail.MailProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.util.Properties;
+
+@Configuration
+@EnableConfigurationProperties(MailProperties.class)
+@ConditionalOnProperty(name = "notification.mail.pool.enabled", havingValue = "true")
+public class PooledMailSenderConfig {
+
+    @Bean
+    @Primary
+    public PooledMailSender pooledMailSender(MailProperties mailProperties,
+                                             @Value("${notification.mail.pool.size:4}") int poolSize,
+                                             @Value("${notification.mail.pool.borrow-timeout-ms:5000}") long borrowTimeoutMillis,
+                                             @Value("${notification.mail.pool.validate-after-idle-ms:30000}") long validateAfterIdleMillis,
+                                             @Value("${notification.mail.pool.max-messages-per-connection:500}") int maxMessagesPerConnection) {
+
+        Properties properties = new Properties();
+        properties.putAll(mailProperties.getProperties());
+        Session session = Session.getInstance(properties);
+
+        return new PooledMailSender(
+                session,
+                mailProperties.getProtocol(),
+                mailProperties.getHost(),
+                mailProperties.getPort() != null ? mailProperties.getPort() : -1,
+                mailProperties.getUsername(),
+                mailProperties.getPassword(),
+                poolSize,
+                borrowTimeoutMillis,
+                validateAfterIdleMillis,
+                maxMessagesPerConnection
+        );
+    }
+}
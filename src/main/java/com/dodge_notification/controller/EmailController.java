@@ -1,14 +1,28 @@
 package com.dodge_notification.controller;
 
-import com.dodge_notification.dto.DtoMapper;
+import com.dodge_notification.dto.BatchItemResult;
 import com.dodge_notification.dto.NotificationRequest;
 import com.dodge_notification.dto.NotificationResponse;
 import com.dodge_notification.model.Notification;
+import com.dodge_notification.dto.StatusPage;
+import com.dodge_notification.model.StatsGranularity;
 import com.dodge_notification.service.EmailService;
+import com.dodge_notification.service.StatusEventStream;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -17,32 +31,127 @@ import java.util.UUID;
 @RequestMapping("/api/emails")
 public class EmailController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final EmailService emailService;
+    private final ObjectMapper objectMapper;
+    private final StatusEventStream statusEventStream;
 
     @Autowired
-    public EmailController(EmailService emailService) {
+    public EmailController(EmailService emailService, ObjectMapper objectMapper, StatusEventStream statusEventStream) {
         this.emailService = emailService;
+        this.objectMapper = objectMapper;
+        this.statusEventStream = statusEventStream;
     }
 
     @PostMapping("/notifyAdvanced")
-    public ResponseEntity<String> sendNotificationEmail(@RequestBody NotificationRequest request) {
+    public ResponseEntity<String> sendNotificationEmail(@RequestBody NotificationRequest request,
+                                                        @RequestParam(name = "async", defaultValue = "false") boolean async,
+                                                        @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         try {
-            Notification notification = emailService.sendNotificationEmail(request);
+            if (async) {
+                Notification notification = emailService.queueNotificationEmail(request, idempotencyKey);
+                return ResponseEntity.accepted().body(notification.getId().toString());
+            }
+            Notification notification = emailService.sendNotificationEmail(request, idempotencyKey);
             return ResponseEntity.ok("Notification status: " + notification.getStatus());
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
+    @PostMapping("/notifyBatch")
+    public ResponseEntity<List<BatchItemResult>> sendNotificationEmails(@RequestBody List<NotificationRequest> requests) {
+        return ResponseEntity.ok(emailService.sendNotificationEmails(requests));
+    }
+
     @GetMapping("/status")
-    public ResponseEntity<List<NotificationResponse>> checkStatus() {
-        List<NotificationResponse> status = emailService.getAllStatuses().stream().map(DtoMapper::fromNotification).toList();
-        return ResponseEntity.ok(status);
+    public ResponseEntity<List<NotificationResponse>> checkStatus(@RequestParam(name = "cursor", required = false) String cursor,
+                                                                  @RequestParam(name = "limit", defaultValue = "100") int limit) {
+        StatusPage page = emailService.getStatusPage(cursor, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+        return toResponse(page);
+    }
+
+    @GetMapping(value = "/status/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamStatusEvents(@RequestParam(name = "userId", required = false) UUID userId,
+                                                         @RequestParam(name = "notificationId", required = false) UUID notificationId) {
+        if ((userId == null) == (notificationId == null)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(userId != null
+                ? statusEventStream.subscribeToUser(userId)
+                : statusEventStream.subscribeToNotification(notificationId));
+    }
+
+    @GetMapping("/status/{userId}")
+    public ResponseEntity<List<NotificationResponse>> checkUserStatus(@PathVariable("userId") UUID userId,
+                                                                      @RequestParam(name = "cursor", required = false) String cursor,
+                                                                      @RequestParam(name = "limit", defaultValue = "20") int limit) {
+        StatusPage page = emailService.getUserStatusPage(userId, cursor, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+        return toResponse(page);
+    }
+
+    @GetMapping(value = "/status/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamStatus() {
+        // One generator for the whole response: rows are encoded into its buffer, not into a byte[] each.
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+                emailService.streamStatuses(response -> {
+                    try {
+                        writer.writeValue(generator, response);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<?> getStats(@RequestParam(name = "granularity", defaultValue = "HOUR") StatsGranularity granularity,
+                                      @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                      @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                      @RequestParam(name = "userId", required = false) UUID userId) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusDays(1);
+        try {
+            return ResponseEntity.ok(emailService.getStats(granularity, start, end, userId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/history")
+    public ResponseEntity<List<NotificationResponse>> getHistory(@RequestParam(name = "userId") UUID userId) {
+        return ResponseEntity.ok(emailService.getNotificationHistory(userId));
     }
 
     @DeleteMapping
-    public ResponseEntity<Void> clearNotificationUser(@RequestParam(name = "userId") UUID userId) {
+    public ResponseEntity<Void> clearNotificationUser(@RequestParam(name = "userId") UUID userId,
+                                                      @RequestParam(name = "async", defaultValue = "false") boolean async) {
+        if (async) {
+            emailService.clearNotificationsAsync(userId);
+            return ResponseEntity.accepted().body(null);
+        }
         emailService.clearNotifications(userId);
         return ResponseEntity.ok().body(null);
     }
+
+    private ResponseEntity<List<NotificationResponse>> toResponse(StatusPage page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
 }
@@ -0,0 +1,37 @@
+package com.dodge_notification.controller;
+
+import com.dodge_notification.dto.PreferenceCacheStats;
+import com.dodge_notification.service.PreferenceService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+
+@RestController
+@RequestMapping("/api/preferences")
+public class PreferenceController {
+
+    private final PreferenceService preferenceService;
+
+    @Autowired
+    public PreferenceController(PreferenceService preferenceService) {
+        this.preferenceService = preferenceService;
+    }
+
+    @DeleteMapping("/cache")
+    public ResponseEntity<Void> invalidateCache(@RequestParam(name = "userId", required = false) UUID userId) {
+        if (userId == null) {
+            preferenceService.invalidateAll();
+        } else {
+            preferenceService.invalidate(userId);
+        }
+        return ResponseEntity.ok().body(null);
+    }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<PreferenceCacheStats> cacheStats() {
+        return ResponseEntity.ok(preferenceService.getStats());
+    }
+}
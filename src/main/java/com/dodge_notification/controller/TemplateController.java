@@ -0,0 +1,27 @@
+package com.dodge_notification.controller;
+
+import com.dodge_notification.dto.TemplateRequest;
+import com.dodge_notification.dto.TemplateResponse;
+import com.dodge_notification.service.TemplateService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+
+@RestController
+@RequestMapping("/api/templates")
+public class TemplateController {
+
+    private final TemplateService templateService;
+
+    @Autowired
+    public TemplateController(TemplateService templateService) {
+        this.templateService = templateService;
+    }
+
+    @PutMapping("/{templateId}")
+    public ResponseEntity<TemplateResponse> registerTemplate(@PathVariable("templateId") String templateId,
+                                                             @RequestBody TemplateRequest request) {
+        return ResponseEntity.ok(templateService.register(templateId, request));
+    }
+}
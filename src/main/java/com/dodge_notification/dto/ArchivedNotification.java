@@ -0,0 +1,35 @@
+package com.dodge_notification.dto;
+
+import com.dodge_notification.model.NotificationStatus;
+import com.dodge_notification.model.NotificationType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * One line of an archive segment: a notification as it was when it left the hot table,
+ * with its body inlined so the archive does not depend on notification_bodies.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ArchivedNotification {
+
+    private UUID id;
+    private UUID userId;
+    private String subject;
+    private String body;
+    private String templateId;
+    private Integer templateVersion;
+    private Map<String, String> variables;
+    private LocalDateTime createdOn;
+    private NotificationType type;
+    private NotificationStatus status;
+    private int attempts;
+}
@@ -0,0 +1,22 @@
+package com.dodge_notification.dto;
+
+import com.dodge_notification.model.NotificationStatus;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+@Builder
+public class BatchItemResult {
+
+    private int index;
+
+    private UUID userId;
+
+    private UUID notificationId;
+
+    private NotificationStatus status;
+
+    private String error;
+}
@@ -9,6 +9,7 @@ public class DtoMapper {
     public static NotificationResponse fromNotification(Notification entity) {
 
         return NotificationResponse.builder()
+                .id(entity.getId())
                 .userId(entity.getUserId())
                 .subject(entity.getSubject())
                 .status(entity.getStatus())
@@ -16,4 +17,16 @@ public class DtoMapper {
                 .type(entity.getType())
                 .build();
     }
+
+    public static NotificationResponse fromArchived(ArchivedNotification archived) {
+
+        return NotificationResponse.builder()
+                .id(archived.getId())
+                .userId(archived.getUserId())
+                .subject(archived.getSubject())
+                .status(archived.getStatus())
+                .createdOn(archived.getCreatedOn())
+                .type(archived.getType())
+                .build();
+    }
 }
@@ -1,10 +1,13 @@
 package com.dodge_notification.dto;
 
+import com.dodge_notification.model.NotificationType;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+import java.util.Map;
 import java.util.UUID;
 
 @Data
@@ -16,4 +19,24 @@ public class NotificationRequest {
     private UUID userId;
     private String subject;
     private String body;
+    private NotificationType type;
+    private String templateId;
+    private Map<String, String> variables;
+    private LocalDateTime sendAt;
+    private boolean digest;
+
+    public NotificationRequest(UUID userId, String subject, String body) {
+        this(userId, subject, body, NotificationType.EMAIL);
+    }
+
+    public NotificationRequest(UUID userId, String subject, String body, NotificationType type) {
+        this(userId, subject, body, type, null, null, null, false);
+    }
+
+    /**
+     * The requested channel; clients that predate channel selection get email.
+     */
+    public NotificationType resolveType() {
+        return type != null ? type : NotificationType.EMAIL;
+    }
 }
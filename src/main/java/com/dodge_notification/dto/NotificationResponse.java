@@ -2,16 +2,27 @@ package com.dodge_notification.dto;
 
 import com.dodge_notification.model.NotificationStatus;
 import com.dodge_notification.model.NotificationType;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
 
+/**
+ * Status view of a notification. Status queries construct it directly, so they never load
+ * the entity or its {@code body} and hand rows to Jackson without an intermediate copy.
+ * The id only positions paging cursors and is not serialized.
+ */
 @Data
 @Builder
+@AllArgsConstructor
 public class NotificationResponse {
 
+    @JsonIgnore
+    private UUID id;
+
     private UUID userId;
 
     private String subject;
@@ -21,4 +32,4 @@ public class NotificationResponse {
     private NotificationStatus status;
 
     private NotificationType type;
-}
\ No newline at end of file
+}
@@ -0,0 +1,44 @@
+package com.dodge_notification.dto;
+
+import com.dodge_notification.model.Notification;
+import com.dodge_notification.model.NotificationStatus;
+import com.dodge_notification.model.NotificationType;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Published in-process every time a notification is saved with a (possibly new) status.
+ */
+@Data
+@Builder
+public class NotificationStatusEvent {
+
+    private UUID notificationId;
+
+    private UUID userId;
+
+    private NotificationType type;
+
+    private NotificationStatus status;
+
+    private int attempts;
+
+    private LocalDateTime sendAt;
+
+    private LocalDateTime occurredOn;
+
+    public static NotificationStatusEvent of(Notification notification) {
+        return NotificationStatusEvent.builder()
+                .notificationId(notification.getId())
+                .userId(notification.getUserId())
+                .type(notification.getType())
+                .status(notification.getStatus())
+                .attempts(notification.getAttempts())
+                .sendAt(notification.getSendAt())
+                .occurredOn(LocalDateTime.now())
+                .build();
+    }
+}
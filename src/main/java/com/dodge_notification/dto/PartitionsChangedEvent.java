@@ -0,0 +1,20 @@
+package com.dodge_notification.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Set;
+
+/**
+ * Published on this instance when its set of owned partitions changes.
+ */
+@Data
+@AllArgsConstructor
+public class PartitionsChangedEvent {
+
+    private String instanceId;
+
+    private Set<Integer> acquired;
+
+    private Set<Integer> released;
+}
@@ -0,0 +1,21 @@
+package com.dodge_notification.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class PreferenceCacheStats {
+
+    private long size;
+
+    private long hitCount;
+
+    private long missCount;
+
+    private double hitRate;
+
+    private long evictionCount;
+
+    private double averageLoadPenaltyMillis;
+}
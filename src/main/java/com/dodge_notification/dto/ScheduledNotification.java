@@ -0,0 +1,14 @@
+package com.dodge_notification.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Just enough of a scheduled notification to put it on the timer wheel.
+ */
+public interface ScheduledNotification {
+
+    UUID getId();
+
+    LocalDateTime getSendAt();
+}
@@ -0,0 +1,21 @@
+package com.dodge_notification.dto;
+
+import com.dodge_notification.model.NotificationStatus;
+import com.dodge_notification.model.NotificationType;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class StatsBucket {
+
+    private LocalDateTime bucketStart;
+
+    private NotificationType type;
+
+    private NotificationStatus status;
+
+    private long count;
+}
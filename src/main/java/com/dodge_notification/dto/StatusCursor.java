@@ -0,0 +1,42 @@
+package com.dodge_notification.dto;
+
+import com.dodge_notification.exception.InvalidCursorException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Keyset position in the status listing: the {@code createdOn} and {@code id} of the
+ * last row a client has seen, encoded as an opaque URL-safe string.
+ */
+@Data
+@AllArgsConstructor
+public class StatusCursor {
+
+    private LocalDateTime createdOn;
+
+    private UUID id;
+
+    public static StatusCursor of(NotificationResponse response) {
+        return new StatusCursor(response.getCreatedOn(), response.getId());
+    }
+
+    public static StatusCursor decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = decoded.split("\\|", 2);
+            return new StatusCursor(LocalDateTime.parse(parts[0]), UUID.fromString(parts[1]));
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException();
+        }
+    }
+
+    public String encode() {
+        String raw = createdOn + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,15 @@
+package com.dodge_notification.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class StatusPage {
+
+    private List<NotificationResponse> items;
+
+    private String nextCursor;
+}
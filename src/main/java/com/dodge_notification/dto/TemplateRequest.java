@@ -0,0 +1,14 @@
+package com.dodge_notification.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TemplateRequest {
+
+    private String subject;
+    private String body;
+}
@@ -0,0 +1,17 @@
+package com.dodge_notification.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.Set;
+
+@Data
+@Builder
+public class TemplateResponse {
+
+    private String id;
+
+    private int version;
+
+    private Set<String> variables;
+}
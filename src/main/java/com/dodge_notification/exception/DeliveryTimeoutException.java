@@ -0,0 +1,10 @@
+package com.dodge_notification.exception;
+
+import com.dodge_notification.model.NotificationType;
+
+public class DeliveryTimeoutException extends RuntimeException {
+
+  public DeliveryTimeoutException(NotificationType type, long timeoutMillis) {
+    super("%s delivery did not complete within %d ms".formatted(type, timeoutMillis));
+  }
+}
@@ -0,0 +1,8 @@
+package com.dodge_notification.exception;
+
+public class InvalidCursorException extends RuntimeException {
+
+  public InvalidCursorException() {
+    super("Invalid cursor");
+  }
+}
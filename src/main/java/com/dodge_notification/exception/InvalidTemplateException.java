@@ -0,0 +1,8 @@
+package com.dodge_notification.exception;
+
+public class InvalidTemplateException extends RuntimeException {
+
+  public InvalidTemplateException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,199 @@
+package com.dodge_notification.mail;
+
+import jakarta.mail.AuthenticationFailedException;
+import jakarta.mail.MessagingException;
+import jakarta.mail.NoSuchProviderException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.MailSender;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.MimeMailMessage;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link MailSender} that keeps a fixed number of authenticated SMTP transports open
+ * and sends many messages over each of them, instead of paying the TCP, STARTTLS and
+ * AUTH handshake on every send like {@code JavaMailSenderImpl} does.
+ * <p>
+ * A connection that has been idle longer than {@code validateAfterIdleMillis} is
+ * checked with a NOOP before use, and a connection is recycled after
+ * {@code maxMessagesPerConnection} messages so long-lived sessions do not hit
+ * provider-side limits.
+ */
+@Slf4j
+public class PooledMailSender implements MailSender, DisposableBean {
+
+    private final Session session;
+    private final String host;
+    private final int port;
+    private final String username;
+    private final String password;
+    private final long borrowTimeoutMillis;
+    private final long validateAfterIdleMillis;
+    private final int maxMessagesPerConnection;
+    private final BlockingDeque<PooledTransport> pool;
+
+    public PooledMailSender(Session session, String protocol, String host, int port, String username, String password,
+                            int poolSize, long borrowTimeoutMillis, long validateAfterIdleMillis, int maxMessagesPerConnection) {
+        this.session = session;
+        this.host = host;
+        this.port = port;
+        this.username = username;
+        this.password = password;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.validateAfterIdleMillis = validateAfterIdleMillis;
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+        this.pool = new LinkedBlockingDeque<>(poolSize);
+
+        for (int i = 0; i < poolSize; i++) {
+            try {
+                pool.add(new PooledTransport(session.getTransport(protocol)));
+            } catch (NoSuchProviderException e) {
+                throw new IllegalStateException("Unknown mail protocol %s.".formatted(protocol), e);
+            }
+        }
+    }
+
+    @Override
+    public void send(SimpleMailMessage simpleMessage) throws MailException {
+        send(new SimpleMailMessage[]{simpleMessage});
+    }
+
+    @Override
+    public void send(SimpleMailMessage... simpleMessages) throws MailException {
+        List<MimeMessage> mimeMessages = new ArrayList<>(simpleMessages.length);
+        for (SimpleMailMessage simpleMessage : simpleMessages) {
+            mimeMessages.add(toMimeMessage(simpleMessage));
+        }
+
+        // Keyed by the caller's message like JavaMailSenderImpl does. Equal messages share an entry,
+        // so callers that need a result per position pass messages with identity equality.
+        Map<Object, Exception> failedMessages = new LinkedHashMap<>();
+        PooledTransport pooled = borrow();
+
+        try {
+            for (int i = 0; i < mimeMessages.size(); i++) {
+                MimeMessage mimeMessage = mimeMessages.get(i);
+                try {
+                    // Checked per message, so a large batch is split across connections as well.
+                    if (pooled.sent >= maxMessagesPerConnection) {
+                        close(pooled);
+                    }
+                    ensureConnected(pooled);
+                    pooled.transport.sendMessage(mimeMessage, mimeMessage.getAllRecipients());
+                    pooled.sent++;
+                } catch (AuthenticationFailedException e) {
+                    throw new MailAuthenticationException(e);
+                } catch (MessagingException e) {
+                    failedMessages.put(simpleMessages[i], e);
+                    close(pooled);
+                }
+            }
+        } finally {
+            release(pooled);
+        }
+
+        if (!failedMessages.isEmpty()) {
+            throw new MailSendException(failedMessages);
+        }
+    }
+
+    public int getIdleCount() {
+        return pool.size();
+    }
+
+    @Override
+    public void destroy() {
+        PooledTransport pooled;
+        while ((pooled = pool.poll()) != null) {
+            close(pooled);
+        }
+    }
+
+    private MimeMessage toMimeMessage(SimpleMailMessage simpleMessage) {
+        try {
+            MimeMessage mimeMessage = new MimeMessage(session);
+            simpleMessage.copyTo(new MimeMailMessage(mimeMessage));
+            if (mimeMessage.getSentDate() == null) {
+                mimeMessage.setSentDate(new Date());
+            }
+            mimeMessage.saveChanges();
+            return mimeMessage;
+        } catch (MessagingException e) {
+            throw new MailParseException(e);
+        }
+    }
+
+    private PooledTransport borrow() {
+        try {
+            PooledTransport pooled = pool.pollFirst(borrowTimeoutMillis, TimeUnit.MILLISECONDS);
+            if (pooled == null) {
+                throw new MailSendException("No SMTP connection became available within %d ms.".formatted(borrowTimeoutMillis));
+            }
+            return pooled;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MailSendException("Interrupted while waiting for an SMTP connection.", e);
+        }
+    }
+
+    private void release(PooledTransport pooled) {
+        if (pooled.sent >= maxMessagesPerConnection) {
+            close(pooled);
+        }
+        pooled.lastUsed = System.currentTimeMillis();
+        // Most recently used first, so a warm connection is reused before an idle one is opened.
+        pool.offerFirst(pooled);
+    }
+
+    private void ensureConnected(PooledTransport pooled) throws MessagingException {
+        boolean idleTooLong = System.currentTimeMillis() - pooled.lastUsed > validateAfterIdleMillis;
+
+        // SMTPTransport#isConnected issues a NOOP, so the server is only asked after an idle period.
+        if (pooled.connected && (!idleTooLong || pooled.transport.isConnected())) {
+            return;
+        }
+
+        close(pooled);
+        pooled.transport.connect(host, port, username, password);
+        pooled.connected = true;
+        pooled.lastUsed = System.currentTimeMillis();
+    }
+
+    private void close(PooledTransport pooled) {
+        pooled.connected = false;
+        pooled.sent = 0;
+        try {
+            pooled.transport.close();
+        } catch (MessagingException e) {
+            log.debug("Could not close SMTP connection cleanly due to %s.".formatted(e.getMessage()));
+        }
+    }
+
+    private static final class PooledTransport {
+
+        private final Transport transport;
+        private boolean connected;
+        private int sent;
+        private long lastUsed = System.currentTimeMillis();
+
+        private PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+    }
+}
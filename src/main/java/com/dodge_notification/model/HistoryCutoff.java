@@ -0,0 +1,51 @@
+package com.dodge_notification.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * When a user last cleared their notifications. Clearing soft-deletes live rows, but archived
+ * rows are immutable, so history hides archived notifications created before this instant.
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "notification_history_cutoffs")
+public class HistoryCutoff implements Persistable<UUID> {
+
+    @Id
+    @Column(name = "user_id")
+    private UUID userId;
+
+    @Column(name = "cleared_before", nullable = false)
+    private LocalDateTime clearedBefore;
+
+    // Ids are assigned, so without this every first clear would select before inserting.
+    @Transient
+    private boolean stored;
+
+    @Override
+    public UUID getId() {
+        return userId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !stored;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markStored() {
+        stored = true;
+    }
+}
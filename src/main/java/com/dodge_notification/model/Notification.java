@@ -5,8 +5,12 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import org.springframework.data.domain.Persistable;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 import java.util.UUID;
 
 @Data
@@ -14,22 +18,47 @@ import java.util.UUID;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "notifications")
-public class Notification {
+@Table(name = "notifications", indexes = {
+        @Index(name = "idx_notifications_user_deleted_created", columnList = "user_id, deleted, created_on"),
+        @Index(name = "idx_notifications_deleted_created", columnList = "deleted, created_on"),
+        @Index(name = "idx_notifications_status_next_attempt", columnList = "status, next_attempt_at"),
+        @Index(name = "idx_notifications_body_hash", columnList = "body_hash"),
+        @Index(name = "idx_notifications_status_send_at", columnList = "status, send_at"),
+        @Index(name = "idx_notifications_digest", columnList = "digest_id"),
+        @Index(name = "idx_notifications_partition_status_next_attempt", columnList = "partition_id, status, next_attempt_at")
+})
+public class Notification implements Persistable<UUID> {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
     private UUID id;
 
+    @Column(name = "user_id")
     private UUID userId;
 
     @Column(nullable = false)
     private String subject;
 
-    @Column(nullable = false)
+    // Not a column: kept compressed in notification_bodies under bodyHash, or rendered
+    // from templateId and variables for templated notifications.
+    @Transient
     private String body;
 
-    @Column(nullable = false)
+    @Column(name = "body_hash", length = 64)
+    private String bodyHash;
+
+    @Column(name = "template_id", length = 100)
+    private String templateId;
+
+    // The template version the subject was rendered with; the body is rendered from the same one.
+    @Column(name = "template_version")
+    private Integer templateVersion;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "template_variables")
+    private Map<String, String> variables;
+
+    @Column(name = "created_on", nullable = false)
     private LocalDateTime createdOn;
 
     @Column(nullable = false)
@@ -40,6 +69,57 @@ public class Notification {
     @Enumerated(EnumType.STRING)
     private NotificationStatus status;
 
+    private int attempts;
+
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    // Set for notifications requested for a later time; they stay SCHEDULED until then.
+    @Column(name = "send_at")
+    private LocalDateTime sendAt;
+
+    // Set on DIGESTED notifications: the id of the digest notification that delivered them.
+    @Column(name = "digest_id")
+    private UUID digestId;
+
+    // Derived from userId on insert; background work is split between instances by partition.
+    @Column(name = "partition_id")
+    private Integer partitionId;
+
     private boolean deleted;
 
+    private LocalDateTime deletedOn;
+
+    // Ids may be assigned before the first insert, so "new" cannot be told from the id alone.
+    @Transient
+    private boolean stored;
+
+    // The status NotificationStats last counted this notification under; a loaded row was
+    // counted when its status was written.
+    @Transient
+    private NotificationStatus countedStatus;
+
+    @Override
+    public boolean isNew() {
+        return !stored;
+    }
+
+    @PrePersist
+    void assignPartition() {
+        if (partitionId == null) {
+            partitionId = PartitionLease.partitionOf(userId);
+        }
+    }
+
+    @PostPersist
+    void markStored() {
+        stored = true;
+    }
+
+    @PostLoad
+    void markLoaded() {
+        stored = true;
+        countedStatus = status;
+    }
+
 }
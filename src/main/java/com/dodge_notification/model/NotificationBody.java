@@ -0,0 +1,58 @@
+package com.dodge_notification.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Gzip-compressed notification body, keyed by the SHA-256 of its text so identical bodies
+ * are stored once. Notifications only hold the hash and never join this table.
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "notification_bodies")
+public class NotificationBody implements Persistable<String> {
+
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    @Lob
+    @Column(nullable = false)
+    private byte[] content;
+
+    @Column(name = "created_on", nullable = false)
+    private LocalDateTime createdOn;
+
+    // Refreshed whenever a cold hash is reused, so the orphan purge leaves bodies in use alone.
+    @Column(name = "last_used_on")
+    private LocalDateTime lastUsedOn;
+
+    // Hashes are assigned, so without this every save would select before inserting.
+    @Transient
+    private boolean stored;
+
+    @Override
+    public String getId() {
+        return hash;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !stored;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markStored() {
+        stored = true;
+    }
+}
@@ -14,4 +14,20 @@ public class NotificationPreference {
     private UUID userId;
     private boolean enabled;
     private String contactInfo;
+    private String phoneNumber;
+
+    public NotificationPreference(UUID userId, boolean enabled, String contactInfo) {
+        this(userId, enabled, contactInfo, null);
+    }
+
+    /**
+     * The address the given channel delivers to: the email contact for email, the phone number for SMS.
+     */
+    public String getRecipient(NotificationType type) {
+        String recipient = type == NotificationType.SMS ? phoneNumber : contactInfo;
+        if (recipient == null || recipient.isBlank()) {
+            throw new IllegalArgumentException("User %s has no recipient for %s notifications.".formatted(userId, type));
+        }
+        return recipient;
+    }
 }
@@ -0,0 +1,66 @@
+package com.dodge_notification.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Number of notifications saved with a status in one time bucket, either across all users
+ * ({@code userId} null) or for a single user. Rows are only ever incremented.
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "notification_stats", indexes = {
+        @Index(name = "idx_notification_stats_bucket", columnList = "granularity, user_id, bucket_start")
+})
+public class NotificationStat implements Persistable<String> {
+
+    @Id
+    @Column(length = 128)
+    private String id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private StatsGranularity granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "user_id")
+    private UUID userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private NotificationType type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private NotificationStatus status;
+
+    @Column(name = "notification_count", nullable = false)
+    private long count;
+
+    // Ids are assigned; an insert must fail on a concurrent insert rather than merge over it.
+    @Transient
+    private boolean stored;
+
+    @Override
+    public boolean isNew() {
+        return !stored;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markStored() {
+        stored = true;
+    }
+}
@@ -1,5 +1,5 @@
 package com.dodge_notification.model;
 
 public enum NotificationStatus {
-    SUCCEEDED, FAILED
+    PENDING, SUCCEEDED, FAILED, RETRYING, DEAD, DEFERRED, SCHEDULED, DIGESTED
 }
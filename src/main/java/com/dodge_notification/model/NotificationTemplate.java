@@ -0,0 +1,73 @@
+package com.dodge_notification.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * One version of a template. Versions are never updated: registering a template again adds
+ * the next version, and notifications keep the version they were rendered from.
+ */
+@Data
+@Entity
+@Builder
+@Immutable
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(NotificationTemplate.Key.class)
+@Table(name = "notification_template_versions")
+public class NotificationTemplate implements Persistable<NotificationTemplate.Key> {
+
+    @Id
+    @Column(name = "template_id", length = 100)
+    private String templateId;
+
+    @Id
+    private int version;
+
+    @Column(nullable = false)
+    private String subject;
+
+    @Lob
+    @Column(nullable = false)
+    private String body;
+
+    @Column(name = "created_on", nullable = false)
+    private LocalDateTime createdOn;
+
+    // The key is assigned before the insert, so "new" cannot be told from the id alone.
+    @Transient
+    private boolean stored;
+
+    @Override
+    public Key getId() {
+        return new Key(templateId, version);
+    }
+
+    @Override
+    public boolean isNew() {
+        return !stored;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markStored() {
+        stored = true;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        private String templateId;
+        private int version;
+    }
+}
@@ -0,0 +1,58 @@
+package com.dodge_notification.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Ownership of one partition of the notifications table. Notifications are hashed by user
+ * into {@link #PARTITIONS} partitions, and background work on a partition is only done by
+ * the instance holding its lease. A lease without an owner, or past {@code expiresAt}, can
+ * be claimed by any instance.
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "partition_leases")
+public class PartitionLease implements Persistable<Integer> {
+
+    // Fixed rather than configurable: changing it would move existing rows between partitions.
+    public static final int PARTITIONS = 64;
+
+    @Id
+    @Column(name = "partition_id")
+    private Integer id;
+
+    @Column(length = 64)
+    private String owner;
+
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+
+    // Partitions are assigned ids; creating them must fail on a concurrent insert rather than merge.
+    @Transient
+    private boolean stored;
+
+    public static int partitionOf(UUID userId) {
+        return userId == null ? 0 : Math.floorMod(userId.hashCode(), PARTITIONS);
+    }
+
+    @Override
+    public boolean isNew() {
+        return !stored;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markStored() {
+        stored = true;
+    }
+}
@@ -0,0 +1,45 @@
+package com.dodge_notification.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * A running application instance, kept alive by its heartbeat. Partitions are shared out
+ * among the instances whose {@code expiresAt} has not passed, including ones holding none yet.
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "service_instances")
+public class ServiceInstance implements Persistable<String> {
+
+    @Id
+    @Column(length = 64)
+    private String id;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    // Ids are assigned, so without this every registration would select before inserting.
+    @Transient
+    private boolean stored;
+
+    @Override
+    public boolean isNew() {
+        return !stored;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markStored() {
+        stored = true;
+    }
+}
@@ -0,0 +1,32 @@
+package com.dodge_notification.model;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * RFC 9562 version 7 UUIDs: a 48-bit Unix millisecond timestamp followed by random bits.
+ * Ids created close in time sort next to each other, so inserts append to the right edge
+ * of the primary key index instead of splitting random pages.
+ */
+@UtilityClass
+public class UuidV7 {
+
+    public static UUID generate() {
+        return generate(System.currentTimeMillis());
+    }
+
+    public static UUID generate(long epochMillis) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        long mostSigBits = (epochMillis << 16) | 0x7000L | (random.nextLong() & 0x0FFFL);
+        long leastSigBits = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    public static long timestamp(UUID uuid) {
+        return uuid.getMostSignificantBits() >>> 16;
+    }
+}
@@ -0,0 +1,19 @@
+package com.dodge_notification.repository;
+
+import com.dodge_notification.model.HistoryCutoff;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public interface HistoryCutoffRepository extends JpaRepository<HistoryCutoff, UUID> {
+
+    @Transactional
+    @Modifying
+    @Query("update HistoryCutoff c set c.clearedBefore = :clearedBefore where c.userId = :userId and c.clearedBefore < :clearedBefore")
+    int moveCutoff(@Param("userId") UUID userId, @Param("clearedBefore") LocalDateTime clearedBefore);
+}
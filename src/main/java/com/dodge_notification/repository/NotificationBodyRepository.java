@@ -0,0 +1,31 @@
+package com.dodge_notification.repository;
+
+import com.dodge_notification.model.NotificationBody;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface NotificationBodyRepository extends JpaRepository<NotificationBody, String> {
+
+    @Query("select b.hash from NotificationBody b where b.hash in :hashes")
+    List<String> findExistingHashes(@Param("hashes") Collection<String> hashes);
+
+    @Transactional
+    @Modifying
+    @Query("update NotificationBody b set b.lastUsedOn = :usedOn where b.hash in :hashes")
+    int touch(@Param("hashes") Collection<String> hashes, @Param("usedOn") LocalDateTime usedOn);
+
+    @Modifying
+    @Query("""
+            delete from NotificationBody b
+            where coalesce(b.lastUsedOn, b.createdOn) < :cutoff
+              and not exists (select n.id from Notification n where n.bodyHash = b.hash)
+            """)
+    int deleteUnreferencedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,13 +1,212 @@
 package com.dodge_notification.repository;
 
+import com.dodge_notification.dto.NotificationResponse;
+import com.dodge_notification.dto.ScheduledNotification;
 import com.dodge_notification.model.Notification;
+import com.dodge_notification.model.NotificationStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.SpecHints.HINT_SPEC_LOCK_TIMEOUT;
 
 public interface NotificationRepository extends JpaRepository<Notification, UUID> {
 
-    List<Notification> findAllByDeletedFalse();
     List<Notification> findAllByUserIdAndDeletedIsFalse(UUID userId);
+
+    @Query("""
+            select new com.dodge_notification.dto.NotificationResponse(
+                   n.id, n.userId, n.subject, n.createdOn, n.status, n.type)
+            from Notification n
+            where n.deleted = false
+            order by n.createdOn desc, n.id desc
+            """)
+    List<NotificationResponse> findSummaries(Limit limit);
+
+    @Query("""
+            select new com.dodge_notification.dto.NotificationResponse(
+                   n.id, n.userId, n.subject, n.createdOn, n.status, n.type)
+            from Notification n
+            where n.deleted = false
+              and (n.createdOn < :createdOn or (n.createdOn = :createdOn and n.id < :id))
+            order by n.createdOn desc, n.id desc
+            """)
+    List<NotificationResponse> findSummariesAfter(@Param("createdOn") LocalDateTime createdOn,
+                                                  @Param("id") UUID id,
+                                                  Limit limit);
+
+    @Query("""
+            select new com.dodge_notification.dto.NotificationResponse(
+                   n.id, n.userId, n.subject, n.createdOn, n.status, n.type)
+            from Notification n
+            where n.userId = :userId and n.deleted = false
+            order by n.createdOn desc, n.id desc
+            """)
+    List<NotificationResponse> findUserSummaries(@Param("userId") UUID userId, Limit limit);
+
+    @Query("""
+            select new com.dodge_notification.dto.NotificationResponse(
+                   n.id, n.userId, n.subject, n.createdOn, n.status, n.type)
+            from Notification n
+            where n.userId = :userId and n.deleted = false
+              and (n.createdOn < :createdOn or (n.createdOn = :createdOn and n.id < :id))
+            order by n.createdOn desc, n.id desc
+            """)
+    List<NotificationResponse> findUserSummariesAfter(@Param("userId") UUID userId,
+                                                      @Param("createdOn") LocalDateTime createdOn,
+                                                      @Param("id") UUID id,
+                                                      Limit limit);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+            select new com.dodge_notification.dto.NotificationResponse(
+                   n.id, n.userId, n.subject, n.createdOn, n.status, n.type)
+            from Notification n
+            where n.deleted = false
+            order by n.createdOn desc, n.id desc
+            """)
+    Stream<NotificationResponse> streamSummaries();
+
+    @Modifying
+    @Query("""
+            update Notification n
+            set n.deleted = true, n.deletedOn = :deletedOn
+            where n.userId = :userId and n.deleted = false
+            """)
+    int softDeleteAllByUserId(@Param("userId") UUID userId, @Param("deletedOn") LocalDateTime deletedOn);
+
+    @Modifying
+    @Query("""
+            update Notification n
+            set n.deleted = true, n.deletedOn = :deletedOn
+            where n.id in :ids and n.deleted = false
+            """)
+    int softDeleteAllByIdIn(@Param("ids") List<UUID> ids, @Param("deletedOn") LocalDateTime deletedOn);
+
+    // Bounded by the clear request, so rows created while a long clear runs are kept.
+    @Query("select n.id from Notification n where n.userId = :userId and n.deleted = false and n.createdOn <= :clearedAt")
+    List<UUID> findActiveIdsByUserId(@Param("userId") UUID userId, @Param("clearedAt") LocalDateTime clearedAt, Limit limit);
+
+    // Rows soft-deleted before deletedOn existed; stamping them starts their retention period.
+    @Modifying
+    @Query("""
+            update Notification n set n.deletedOn = :deletedOn
+            where n.deleted = true and n.deletedOn is null and n.partitionId in :partitions
+            """)
+    int stampMissingDeletedOn(@Param("deletedOn") LocalDateTime deletedOn,
+                              @Param("partitions") Collection<Integer> partitions);
+
+    @Query("""
+            select n.id from Notification n
+            where n.deleted = true and n.deletedOn < :cutoff and n.partitionId in :partitions
+            """)
+    List<UUID> findPurgeableIds(@Param("cutoff") LocalDateTime cutoff,
+                                @Param("partitions") Collection<Integer> partitions,
+                                Limit limit);
+
+    @Query("""
+            select n from Notification n
+            where n.deleted = false and n.status in :statuses and n.createdOn < :cutoff
+              and n.partitionId in :partitions
+            order by n.createdOn, n.id
+            """)
+    List<Notification> findArchivable(@Param("statuses") Collection<NotificationStatus> statuses,
+                                      @Param("cutoff") LocalDateTime cutoff,
+                                      @Param("partitions") Collection<Integer> partitions,
+                                      Limit limit);
+
+    @Query("""
+            select n.id as id, n.sendAt as sendAt from Notification n
+            where n.status = :status and n.deleted = false and n.sendAt >= :from and n.sendAt < :until
+              and n.partitionId in :partitions
+            order by n.sendAt, n.id
+            """)
+    List<ScheduledNotification> findScheduled(@Param("status") NotificationStatus status,
+                                              @Param("from") LocalDateTime from,
+                                              @Param("until") LocalDateTime until,
+                                              @Param("partitions") Collection<Integer> partitions,
+                                              Limit limit);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = HINT_SPEC_LOCK_TIMEOUT, value = "-2"))
+    @Query("select n from Notification n where n.id in :ids and n.status = :status and n.deleted = false")
+    List<Notification> findByIdsForUpdate(@Param("ids") Collection<UUID> ids,
+                                          @Param("status") NotificationStatus status);
+
+    @Query("select n.id from Notification n where n.id in :ids and n.status = :status and n.deleted = false")
+    List<UUID> findIdsWithStatus(@Param("ids") Collection<UUID> ids, @Param("status") NotificationStatus status);
+
+    /**
+     * Moves the still pending, not cleared notifications among {@code ids} to {@code DIGESTED};
+     * a conditional update, so it cannot bring back rows cleared in the meantime.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            update Notification n
+            set n.status = :digested, n.nextAttemptAt = null, n.digestId = :digestId
+            where n.id in :ids and n.status = :pending and n.deleted = false
+            """)
+    int markDigested(@Param("ids") Collection<UUID> ids,
+                     @Param("digestId") UUID digestId,
+                     @Param("pending") NotificationStatus pending,
+                     @Param("digested") NotificationStatus digested);
+
+    /**
+     * Stores the outcome of a delivery attempt unless the notification was cleared in the
+     * meantime; a full-entity merge of the detached notification would bring it back.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            update Notification n
+            set n.status = :status, n.attempts = :attempts, n.nextAttemptAt = :nextAttemptAt
+            where n.id = :id and n.deleted = false
+            """)
+    int updateOutcome(@Param("id") UUID id,
+                      @Param("status") NotificationStatus status,
+                      @Param("attempts") int attempts,
+                      @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+
+    /**
+     * Locks due rows with {@code FOR UPDATE SKIP LOCKED} (lock timeout -2), so several
+     * instances can claim work concurrently without blocking on each other's rows.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = HINT_SPEC_LOCK_TIMEOUT, value = "-2"))
+    @Query("""
+            select n from Notification n
+            where n.status in :statuses and n.nextAttemptAt <= :now and n.partitionId in :partitions
+              and n.deleted = false
+            order by n.nextAttemptAt
+            """)
+    List<Notification> findDueForUpdate(@Param("statuses") Collection<NotificationStatus> statuses,
+                                        @Param("now") LocalDateTime now,
+                                        @Param("partitions") Collection<Integer> partitions,
+                                        Limit limit);
+
+    @Query("select distinct n.userId from Notification n where n.partitionId is null")
+    List<UUID> findUsersWithoutPartition(Limit limit);
+
+    @Modifying
+    @Query("update Notification n set n.partitionId = :partitionId where n.userId in :userIds and n.partitionId is null")
+    int assignPartition(@Param("userIds") Collection<UUID> userIds, @Param("partitionId") int partitionId);
+
+    @Modifying
+    @Query("update Notification n set n.partitionId = 0 where n.userId is null and n.partitionId is null")
+    int assignPartitionToUnowned();
 }
@@ -0,0 +1,42 @@
+package com.dodge_notification.repository;
+
+import com.dodge_notification.model.NotificationStat;
+import com.dodge_notification.model.StatsGranularity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface NotificationStatRepository extends JpaRepository<NotificationStat, String> {
+
+    @Query("""
+            select s from NotificationStat s
+            where s.granularity = :granularity and s.userId is null
+            and s.bucketStart >= :from and s.bucketStart < :to
+            """)
+    List<NotificationStat> findTotals(@Param("granularity") StatsGranularity granularity,
+                                      @Param("from") LocalDateTime from,
+                                      @Param("to") LocalDateTime to);
+
+    @Query("""
+            select s from NotificationStat s
+            where s.granularity = :granularity and s.userId = :userId
+            and s.bucketStart >= :from and s.bucketStart < :to
+            """)
+    List<NotificationStat> findByUser(@Param("granularity") StatsGranularity granularity,
+                                      @Param("userId") UUID userId,
+                                      @Param("from") LocalDateTime from,
+                                      @Param("to") LocalDateTime to);
+
+    @Modifying
+    @Query("update NotificationStat s set s.count = s.count + :delta where s.id = :id")
+    int increment(@Param("id") String id, @Param("delta") long delta);
+
+    @Modifying
+    @Query("delete from NotificationStat s where s.granularity = :granularity and s.bucketStart < :cutoff")
+    int deleteBucketsBefore(@Param("granularity") StatsGranularity granularity, @Param("cutoff") LocalDateTime cutoff);
+}
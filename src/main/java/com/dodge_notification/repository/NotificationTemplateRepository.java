@@ -0,0 +1,11 @@
+package com.dodge_notification.repository;
+
+import com.dodge_notification.model.NotificationTemplate;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface NotificationTemplateRepository extends JpaRepository<NotificationTemplate, NotificationTemplate.Key> {
+
+    Optional<NotificationTemplate> findFirstByTemplateIdOrderByVersionDesc(String templateId);
+}
@@ -0,0 +1,49 @@
+package com.dodge_notification.repository;
+
+import com.dodge_notification.model.PartitionLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface PartitionLeaseRepository extends JpaRepository<PartitionLease, Integer> {
+
+    @Query("select l.id from PartitionLease l")
+    List<Integer> findAllIds();
+
+    @Query("select l.id from PartitionLease l where l.owner = :owner and l.expiresAt > :now order by l.id")
+    List<Integer> findOwned(@Param("owner") String owner, @Param("now") LocalDateTime now);
+
+    @Query("select l.id from PartitionLease l where l.owner is null or l.expiresAt <= :now order by l.id")
+    List<Integer> findClaimable(@Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("update PartitionLease l set l.expiresAt = :expiresAt where l.owner = :owner")
+    int renew(@Param("owner") String owner, @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Takes the partition only if it is still free when the row is updated, so two instances
+     * racing for it cannot both win.
+     */
+    @Modifying
+    @Query("""
+            update PartitionLease l set l.owner = :owner, l.expiresAt = :expiresAt
+            where l.id = :id and (l.owner is null or l.expiresAt <= :now)
+            """)
+    int claim(@Param("id") int id,
+              @Param("owner") String owner,
+              @Param("expiresAt") LocalDateTime expiresAt,
+              @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("update PartitionLease l set l.owner = null, l.expiresAt = null where l.owner = :owner and l.id in :ids")
+    int release(@Param("owner") String owner, @Param("ids") Collection<Integer> ids);
+
+    @Modifying
+    @Query("update PartitionLease l set l.owner = null, l.expiresAt = null where l.owner = :owner")
+    int releaseAll(@Param("owner") String owner);
+}
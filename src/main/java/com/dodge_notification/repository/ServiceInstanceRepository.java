@@ -0,0 +1,24 @@
+package com.dodge_notification.repository;
+
+import com.dodge_notification.model.ServiceInstance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ServiceInstanceRepository extends JpaRepository<ServiceInstance, String> {
+
+    @Query("select i.id from ServiceInstance i where i.expiresAt > :now order by i.id")
+    List<String> findLiveIds(@Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("update ServiceInstance i set i.expiresAt = :expiresAt where i.id = :id")
+    int renew(@Param("id") String id, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("delete from ServiceInstance i where i.expiresAt <= :cutoff")
+    int deleteExpiredBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,172 @@
+package com.dodge_notification.service;
+
+import com.dodge_notification.model.Notification;
+import com.dodge_notification.model.NotificationBody;
+import com.dodge_notification.repository.NotificationBodyRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps notification bodies out of the notifications table. Bodies are gzip-compressed
+ * into {@link NotificationBody} rows keyed by their SHA-256, so identical bodies are
+ * written once, and notifications only reference the hash. Hashes seen recently are
+ * remembered so hot bodies skip the existence check.
+ * <p>
+ * The cleanup purge deletes bodies that no notification references and that have not been
+ * used for a day. A remembered hash must therefore never outlive its row: the
+ * {@code last_used_on} of bodies is refreshed before checking which of them exist, and a hash
+ * is only remembered for {@code notification.bodies.touch-interval}, which has to stay well
+ * below the purge's one-day grace period. This holds across instances too, since it relies on
+ * the row and not on any local state.
+ */
+@Slf4j
+@Service
+public class BodyStore {
+
+    private final NotificationBodyRepository bodyRepository;
+    private final Cache<String, Boolean> storedHashes;
+    private final Cache<String, String> loadedBodies;
+
+    @Autowired
+    public BodyStore(NotificationBodyRepository bodyRepository,
+                     @Value("${notification.bodies.known-hashes:100000}") long knownHashes,
+                     @Value("${notification.bodies.touch-interval:1h}") Duration touchInterval,
+                     @Value("${notification.bodies.cache.maximum-size:1000}") long cachedBodies) {
+        this.bodyRepository = bodyRepository;
+        this.storedHashes = Caffeine.newBuilder().maximumSize(knownHashes).expireAfterWrite(touchInterval).build();
+        this.loadedBodies = Caffeine.newBuilder().maximumSize(cachedBodies).build();
+    }
+
+    /**
+     * Stores the bodies of the given notifications that are not stored yet and sets their
+     * body hash once the body row is in place. Notifications without a body (templated
+     * ones) are left alone. When storing fails, no hash is set.
+     */
+    public void storeAll(Collection<Notification> notifications) {
+        Map<String, String> pending = new LinkedHashMap<>();
+        List<Notification> hashed = new ArrayList<>();
+        List<String> hashes = new ArrayList<>();
+
+        for (Notification notification : notifications) {
+            if (notification.getBody() == null || notification.getBodyHash() != null) {
+                continue;
+            }
+
+            String hash = hash(notification.getBody());
+            hashed.add(notification);
+            hashes.add(hash);
+            if (storedHashes.getIfPresent(hash) == null) {
+                pending.putIfAbsent(hash, notification.getBody());
+            }
+        }
+
+        if (!pending.isEmpty()) {
+            insertMissing(pending);
+        }
+
+        for (int i = 0; i < hashed.size(); i++) {
+            hashed.get(i).setBodyHash(hashes.get(i));
+        }
+    }
+
+    public void store(Notification notification) {
+        storeAll(List.of(notification));
+    }
+
+    public String load(String hash) {
+        return loadedBodies.get(hash, key -> bodyRepository.findById(key)
+                .map(body -> decompress(body.getContent()))
+                .orElseThrow(() -> new IllegalStateException("No notification body stored with hash %s.".formatted(key))));
+    }
+
+    private void insertMissing(Map<String, String> pending) {
+        LocalDateTime now = LocalDateTime.now();
+
+        // Touch first: a body that is still there afterwards can no longer be purged.
+        bodyRepository.touch(pending.keySet(), now);
+        bodyRepository.findExistingHashes(pending.keySet()).forEach(hash -> {
+            pending.remove(hash);
+            storedHashes.put(hash, Boolean.TRUE);
+        });
+
+        List<NotificationBody> bodies = pending.entrySet().stream()
+                .map(body -> NotificationBody.builder()
+                        .hash(body.getKey())
+                        .content(compress(body.getValue()))
+                        .createdOn(now)
+                        .lastUsedOn(now)
+                        .build())
+                .toList();
+
+        try {
+            bodyRepository.saveAll(bodies);
+        } catch (DataIntegrityViolationException e) {
+            // Another request stored one of the same bodies in the meantime.
+            log.debug("Concurrent insert of a notification body, storing one by one.");
+            bodies.forEach(this::saveIgnoringDuplicate);
+        }
+        pending.keySet().forEach(hash -> storedHashes.put(hash, Boolean.TRUE));
+    }
+
+    private void saveIgnoringDuplicate(NotificationBody body) {
+        if (bodyRepository.existsById(body.getHash())) {
+            return;
+        }
+        try {
+            body.setStored(false);
+            bodyRepository.save(body);
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Notification body %s was stored concurrently.".formatted(body.getHash()));
+        }
+    }
+
+    static String hash(String body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(body.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static byte[] compress(String body) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(body.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    static String decompress(byte[] content) {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(content))) {
+            return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.dodge_notification.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A template parsed once into alternating literal and {@code {{variable}}} segments.
+ * Rendering walks the plan into a single pre-sized {@link StringBuilder}, with no
+ * regex or intermediate strings per request.
+ */
+public final class CompiledTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+    private static final int VARIABLE_LENGTH_ESTIMATE = 16;
+
+    private final String[] literals;
+    private final String[] names;
+    private final int literalLength;
+    private final Set<String> variableNames;
+
+    private CompiledTemplate(List<String> literals, List<String> names) {
+        this.literals = literals.toArray(new String[0]);
+        this.names = names.toArray(new String[0]);
+        this.literalLength = literals.stream().mapToInt(String::length).sum();
+        this.variableNames = Set.copyOf(names);
+    }
+
+    public static CompiledTemplate compile(String source) {
+        List<String> literals = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        int position = 0;
+
+        while (true) {
+            int open = source.indexOf(OPEN, position);
+            if (open < 0) {
+                literals.add(source.substring(position));
+                return new CompiledTemplate(literals, names);
+            }
+
+            int close = source.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed template variable at position %d.".formatted(open));
+            }
+
+            String name = source.substring(open + OPEN.length(), close).trim();
+            if (name.isEmpty()) {
+                throw new IllegalArgumentException("Empty template variable at position %d.".formatted(open));
+            }
+
+            literals.add(source.substring(position, open));
+            names.add(name);
+            position = close + CLOSE.length();
+        }
+    }
+
+    public Set<String> getVariableNames() {
+        return variableNames;
+    }
+
+    public String render(Map<String, String> variables) {
+        StringBuilder rendered = new StringBuilder(literalLength + names.length * VARIABLE_LENGTH_ESTIMATE);
+        rendered.append(literals[0]);
+
+        for (int i = 0; i < names.length; i++) {
+            String value = variables == null ? null : variables.get(names[i]);
+            if (value == null) {
+                throw new IllegalArgumentException("Missing template variable %s.".formatted(names[i]));
+            }
+            rendered.append(value).append(literals[i + 1]);
+        }
+        return rendered.toString();
+    }
+}
@@ -0,0 +1,16 @@
+package com.dodge_notification.service;
+
+import com.dodge_notification.model.NotificationPreference;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Component
+public class DefaultPreferenceProvider implements PreferenceProvider {
+
+    @Override
+    public Optional<NotificationPreference> findByUserId(UUID userId) {
+        return Optional.of(new NotificationPreference(userId, true, "stoyan.stoyanov.kz@mail.bg", "+359888000000"));
+    }
+}
@@ -0,0 +1,121 @@
+package com.dodge_notification.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded worker pool that performs delivery for one channel outside the request thread.
+ * At most {@code workers} deliveries run at once and at most {@code queueCapacity} more
+ * wait; beyond that {@link #offer(Runnable)} refuses the task so callers can push back
+ * instead of piling up work in memory.
+ * <p>
+ * With {@code spring.threads.virtual.enabled=true} (Java 21+) every delivery gets its own
+ * virtual thread and {@code workers} only caps concurrent SMTP sessions, so it can be set
+ * far higher than a platform thread pool would allow.
+ * <p>
+ * One queue is created per channel by the
+ * {@link com.dodge_notification.channel.ChannelDispatcher}.
+ */
+@Slf4j
+public class DeliveryQueue implements DisposableBean, MeterBinder {
+
+    private final String name;
+    private final int workers;
+    private final int capacity;
+    private final Semaphore admitted;
+    private final Semaphore running;
+    private final Executor executor;
+    private final long shutdownTimeoutSeconds;
+
+    public DeliveryQueue(String name, int workers, int queueCapacity, long shutdownTimeoutSeconds, boolean virtualThreads) {
+        this.name = name;
+        this.workers = workers;
+        this.capacity = workers + queueCapacity;
+        this.admitted = new Semaphore(capacity);
+        this.running = new Semaphore(workers);
+        this.executor = virtualThreads
+                ? virtualThreadExecutor(name)
+                : Executors.newFixedThreadPool(workers, new CustomizableThreadFactory("delivery-%s-".formatted(name)));
+        this.shutdownTimeoutSeconds = shutdownTimeoutSeconds;
+    }
+
+    public boolean offer(Runnable task) {
+        if (!admitted.tryAcquire()) {
+            return false;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    running.acquireUninterruptibly();
+                    try {
+                        task.run();
+                    } finally {
+                        running.release();
+                    }
+                } finally {
+                    admitted.release();
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            admitted.release();
+            return false;
+        }
+    }
+
+    public int depth() {
+        int inFlight = capacity - admitted.availablePermits();
+        int active = workers - running.availablePermits();
+        return Math.max(0, inFlight - active);
+    }
+
+    public int active() {
+        return workers - running.availablePermits();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("notification.delivery.queue.depth", this, DeliveryQueue::depth)
+                .description("Deliveries accepted but not yet started")
+                .tag("channel", name)
+                .register(registry);
+        Gauge.builder("notification.delivery.active", this, DeliveryQueue::active)
+                .description("Deliveries currently talking to the channel's gateway")
+                .tag("channel", name)
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        boolean drained = admitted.tryAcquire(capacity, shutdownTimeoutSeconds, TimeUnit.SECONDS);
+        if (!drained) {
+            log.warn("Delivery queue %s did not drain within %d seconds, %d tasks dropped."
+                    .formatted(name, shutdownTimeoutSeconds, capacity - admitted.availablePermits()));
+        }
+
+        if (executor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        } else if (executor instanceof SimpleAsyncTaskExecutor simpleAsyncTaskExecutor) {
+            simpleAsyncTaskExecutor.close();
+        }
+    }
+
+    private static Executor virtualThreadExecutor(String name) {
+        SimpleAsyncTaskExecutor virtualThreadExecutor = new SimpleAsyncTaskExecutor("delivery-%s-".formatted(name));
+        virtualThreadExecutor.setVirtualThreads(true);
+        return virtualThreadExecutor;
+    }
+}
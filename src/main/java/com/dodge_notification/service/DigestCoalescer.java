@@ -0,0 +1,137 @@
+package com.dodge_notification.service;
+
+import com.dodge_notification.model.Notification;
+import com.dodge_notification.model.NotificationType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Collects notifications that opted into digests per user and channel. The first one opens
+ * a digest for {@code window}; everything arriving for the same user and channel until then
+ * joins it, and the digest is handed over when the window ends or it reaches
+ * {@code max-size}, whichever comes first.
+ * <p>
+ * Open digests live only in memory. Their notifications are already saved as {@code PENDING}
+ * with a lease past the window, so after a crash the retry scheduler sends them one by one.
+ */
+@Slf4j
+@Component
+public class DigestCoalescer implements DisposableBean {
+
+    private final boolean enabled;
+    private final Duration window;
+    private final int maxSize;
+    private final ScheduledExecutorService timer;
+    private final Map<DigestKey, Digest> open = new ConcurrentHashMap<>();
+
+    @Autowired
+    public DigestCoalescer(@Value("${notification.digest.enabled:true}") boolean enabled,
+                           @Value("${notification.digest.window:30s}") Duration window,
+                           @Value("${notification.digest.max-size:20}") int maxSize) {
+        this.enabled = enabled;
+        this.window = window;
+        this.maxSize = maxSize;
+        this.timer = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("digest-"));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Duration getWindow() {
+        return window;
+    }
+
+    /**
+     * Adds the notification to the open digest of its user and channel, opening one if needed.
+     * {@code onClose} receives the contact info and the notifications of the digest, on the
+     * timer thread when the window ends or on the caller's thread when this fills it up.
+     */
+    public void add(Notification notification, String contactInfo, BiConsumer<String, List<Notification>> onClose) {
+        DigestKey key = new DigestKey(notification.getUserId(), notification.getType());
+
+        while (true) {
+            Digest digest = open.computeIfAbsent(key, k -> openDigest(k, contactInfo, onClose));
+            boolean full;
+            synchronized (digest) {
+                if (digest.closed) {
+                    open.remove(key, digest);
+                    continue;
+                }
+                digest.notifications.add(notification);
+                full = digest.notifications.size() >= maxSize;
+            }
+            if (full) {
+                close(key, digest);
+            }
+            return;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        timer.shutdownNow();
+        if (!open.isEmpty()) {
+            log.info("Left %d open digests to the retry scheduler.".formatted(open.size()));
+        }
+    }
+
+    private Digest openDigest(DigestKey key, String contactInfo, BiConsumer<String, List<Notification>> onClose) {
+        Digest digest = new Digest(contactInfo, onClose);
+        timer.schedule(() -> close(key, digest), window.toMillis(), TimeUnit.MILLISECONDS);
+        return digest;
+    }
+
+    private void close(DigestKey key, Digest digest) {
+        List<Notification> notifications;
+        synchronized (digest) {
+            if (digest.closed) {
+                return;
+            }
+            digest.closed = true;
+            notifications = List.copyOf(digest.notifications);
+        }
+        open.remove(key, digest);
+
+        if (notifications.isEmpty()) {
+            return;
+        }
+        try {
+            digest.onClose.accept(digest.contactInfo, notifications);
+        } catch (RuntimeException e) {
+            log.warn("Could not hand over a digest of %d notifications for user %s due to %s."
+                    .formatted(notifications.size(), key.userId(), e.getMessage()));
+        }
+    }
+
+    private record DigestKey(UUID userId, NotificationType type) {
+    }
+
+    private static final class Digest {
+
+        private final String contactInfo;
+        private final BiConsumer<String, List<Notification>> onClose;
+        private final List<Notification> notifications = new ArrayList<>();
+        private boolean closed;
+
+        private Digest(String contactInfo, BiConsumer<String, List<Notification>> onClose) {
+            this.contactInfo = contactInfo;
+            this.onClose = onClose;
+        }
+    }
+}
@@ -1,38 +1,438 @@
 package com.dodge_notification.service;
 
+import com.dodge_notification.channel.ChannelDispatcher;
+import com.dodge_notification.dto.BatchItemResult;
+import com.dodge_notification.dto.DtoMapper;
 import com.dodge_notification.dto.NotificationRequest;
+import com.dodge_notification.dto.NotificationResponse;
+import com.dodge_notification.dto.NotificationStatusEvent;
+import com.dodge_notification.dto.StatsBucket;
+import com.dodge_notification.dto.StatusCursor;
+import com.dodge_notification.dto.StatusPage;
+import com.dodge_notification.model.HistoryCutoff;
 import com.dodge_notification.model.Notification;
 import com.dodge_notification.model.NotificationPreference;
 import com.dodge_notification.model.NotificationStatus;
 import com.dodge_notification.model.NotificationType;
+import com.dodge_notification.model.StatsGranularity;
+import com.dodge_notification.repository.HistoryCutoffRepository;
 import com.dodge_notification.repository.NotificationRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.mail.MailSender;
-import org.springframework.mail.SimpleMailMessage;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 public class EmailService {
 
-    private final MailSender mailSender;
-    private final NotificationRepository notificationRepository;
+    private static final String DIGEST_SEPARATOR = "\n\n----------\n\n";
 
+    private final ChannelDispatcher channelDispatcher;
+    private final NotificationRepository notificationRepository;
+    private final NotificationCleanupService notificationCleanupService;
+    private final PreferenceService preferenceService;
+    private final RetryPolicy retryPolicy;
+    private final NotificationMetrics notificationMetrics;
+    private final SendRateLimiter sendRateLimiter;
+    private final NotificationDeduplicator notificationDeduplicator;
+    private final TemplateService templateService;
+    private final BodyStore bodyStore;
+    private final NotificationArchive notificationArchive;
+    private final HistoryCutoffRepository historyCutoffRepository;
+    private final NotificationStats notificationStats;
+    private final RecentNotificationCache recentNotificationCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DigestCoalescer digestCoalescer;
+    private final NotificationWriteBehind notificationWriteBehind;
 
     @Autowired
-    public EmailService(MailSender mailSender, NotificationRepository notificationRepository) {
-        this.mailSender = mailSender;
+    public EmailService(ChannelDispatcher channelDispatcher, NotificationRepository notificationRepository,
+                        NotificationCleanupService notificationCleanupService, PreferenceService preferenceService,
+                        RetryPolicy retryPolicy, NotificationMetrics notificationMetrics, SendRateLimiter sendRateLimiter,
+                        NotificationDeduplicator notificationDeduplicator, TemplateService templateService,
+                        BodyStore bodyStore, NotificationArchive notificationArchive,
+                        HistoryCutoffRepository historyCutoffRepository, NotificationStats notificationStats, RecentNotificationCache recentNotificationCache,
+                        ApplicationEventPublisher eventPublisher, DigestCoalescer digestCoalescer,
+                        NotificationWriteBehind notificationWriteBehind) {
+        this.channelDispatcher = channelDispatcher;
         this.notificationRepository = notificationRepository;
+        this.notificationCleanupService = notificationCleanupService;
+        this.preferenceService = preferenceService;
+        this.retryPolicy = retryPolicy;
+        this.notificationMetrics = notificationMetrics;
+        this.sendRateLimiter = sendRateLimiter;
+        this.notificationDeduplicator = notificationDeduplicator;
+        this.templateService = templateService;
+        this.bodyStore = bodyStore;
+        this.notificationArchive = notificationArchive;
+        this.historyCutoffRepository = historyCutoffRepository;
+        this.notificationStats = notificationStats;
+        this.recentNotificationCache = recentNotificationCache;
+        this.eventPublisher = eventPublisher;
+        this.digestCoalescer = digestCoalescer;
+        this.notificationWriteBehind = notificationWriteBehind;
     }
 
     public Notification sendNotificationEmail(NotificationRequest notificationRequest) {
+        return sendNotificationEmail(notificationRequest, null);
+    }
+
+    public Notification sendNotificationEmail(NotificationRequest notificationRequest, String idempotencyKey) {
+        return notificationDeduplicator.deduplicate(notificationRequest, idempotencyKey,
+                () -> wantsDigest(notificationRequest)
+                        ? coalesceNotificationEmail(notificationRequest)
+                        : deliverNotificationEmail(notificationRequest));
+    }
+
+    public Notification queueNotificationEmail(NotificationRequest notificationRequest) {
+        return queueNotificationEmail(notificationRequest, null);
+    }
+
+    public Notification queueNotificationEmail(NotificationRequest notificationRequest, String idempotencyKey) {
+        return notificationDeduplicator.deduplicate(notificationRequest, idempotencyKey,
+                () -> wantsDigest(notificationRequest)
+                        ? coalesceNotificationEmail(notificationRequest)
+                        : enqueueNotificationEmail(notificationRequest));
+    }
+
+    private Notification deliverNotificationEmail(NotificationRequest notificationRequest) {
+
+        notificationMetrics.recordRequest(notificationRequest.resolveType(), "sync");
+        NotificationPreference userPreference = getEnabledPreference(notificationRequest.getUserId());
+        Notification notification = buildNotification(notificationRequest);
+        String recipient = userPreference.getRecipient(notification.getType());
+
+        if (isScheduled(notification)) {
+            return save(notification);
+        }
+
+        deliver(notification, recipient);
+
+        return save(notification);
+    }
+
+    private Notification enqueueNotificationEmail(NotificationRequest notificationRequest) {
+
+        notificationMetrics.recordRequest(notificationRequest.resolveType(), "async");
+        NotificationPreference userPreference = getEnabledPreference(notificationRequest.getUserId());
+        Notification notification = buildNotification(notificationRequest);
+        String recipient = userPreference.getRecipient(notification.getType());
+        if (isScheduled(notification)) {
+            return save(notification);
+        }
+        notification.setStatus(NotificationStatus.PENDING);
+        // Reserved for the delivery worker; the retry scheduler takes over if it never reports back.
+        notification.setNextAttemptAt(LocalDateTime.now().plus(retryPolicy.getLease()));
+
+        Notification pending = save(notification);
+
+        boolean accepted = channelDispatcher.offer(pending.getType(), () -> {
+            deliver(pending, recipient);
+            saveOutcome(pending);
+        });
+
+        if (!accepted) {
+            // Not an attempt, so attempts stay as they are; the retry scheduler sends it once the queue drains.
+            pending.setStatus(NotificationStatus.RETRYING);
+            pending.setNextAttemptAt(LocalDateTime.now().plus(retryPolicy.backoff(1)));
+            saveOutcome(pending);
+            log.debug("Delivery queue is full, %s waits for the retry scheduler.".formatted(pending.getId()));
+        }
+
+        return pending;
+    }
+
+    /**
+     * Saves the notification as {@code PENDING} and adds it to the user's open digest instead of
+     * sending it. Its lease runs past the digest window, so the retry scheduler only steps in
+     * when the digest never got sent.
+     */
+    private Notification coalesceNotificationEmail(NotificationRequest notificationRequest) {
+
+        notificationMetrics.recordRequest(notificationRequest.resolveType(), "digest");
+        NotificationPreference userPreference = getEnabledPreference(notificationRequest.getUserId());
+        Notification notification = buildNotification(notificationRequest);
+        String recipient = userPreference.getRecipient(notification.getType());
+        if (isScheduled(notification)) {
+            return save(notification);
+        }
+        notification.setStatus(NotificationStatus.PENDING);
+        notification.setNextAttemptAt(LocalDateTime.now().plus(digestCoalescer.getWindow()).plus(retryPolicy.getLease()));
+
+        Notification pending = save(notification);
+        digestCoalescer.add(pending, recipient, (contactInfo, notifications) -> {
+            if (!channelDispatcher.offer(pending.getType(), () -> deliverDigest(contactInfo, notifications))) {
+                log.warn("Delivery queue is full, a digest of %d notifications is left to the retry scheduler."
+                        .formatted(notifications.size()));
+            }
+        });
+
+        return pending;
+    }
+
+    /**
+     * Sends the coalesced notifications that are still pending as one digest notification, then
+     * marks each of them {@code DIGESTED} with a link to it. Notifications cleared while the
+     * digest was open are left out. The digest follows the usual retry lifecycle.
+     */
+    private void deliverDigest(String contactInfo, List<Notification> coalesced) {
+        notificationWriteBehind.flush();
+        Set<UUID> live = new HashSet<>(notificationRepository.findIdsWithStatus(
+                coalesced.stream().map(Notification::getId).toList(), NotificationStatus.PENDING));
+        List<Notification> notifications = coalesced.stream()
+                .filter(notification -> live.contains(notification.getId()))
+                .toList();
+        if (notifications.isEmpty()) {
+            return;
+        }
+        if (notifications.size() == 1) {
+            Notification single = notifications.get(0);
+            deliver(single, contactInfo);
+            saveOutcome(single);
+            return;
+        }
+
+        Notification first = notifications.get(0);
+        Notification digest = Notification.builder()
+                .userId(first.getUserId())
+                .type(first.getType())
+                .subject("You have %d new notifications".formatted(notifications.size()))
+                .body(notifications.stream()
+                        .map(this::outgoing)
+                        .map(notification -> notification.getSubject() + "\n\n" + notification.getBody())
+                        .collect(Collectors.joining(DIGEST_SEPARATOR)))
+                .createdOn(LocalDateTime.now())
+                .deleted(false)
+                .build();
+
+        deliver(digest, contactInfo);
+        Notification saved = save(digest);
+
+        notificationRepository.markDigested(live, saved.getId(), NotificationStatus.PENDING, NotificationStatus.DIGESTED);
+        notifications.forEach(notification -> {
+            notification.setStatus(NotificationStatus.DIGESTED);
+            notification.setNextAttemptAt(null);
+            notification.setDigestId(saved.getId());
+            afterSave(notification);
+        });
+    }
+
+    public void redeliver(Notification notification) {
+        String recipient;
+
+        try {
+            recipient = getEnabledPreference(notification.getUserId()).getRecipient(notification.getType());
+        } catch (IllegalArgumentException e) {
+            notification.setStatus(NotificationStatus.DEAD);
+            notification.setNextAttemptAt(null);
+            saveOutcome(notification);
+            log.warn("Gave up on notification %s due to %s.".formatted(notification.getId(), e.getMessage()));
+            return;
+        }
+
+        deliver(notification, recipient);
+        saveOutcome(notification);
+    }
+
+    public List<BatchItemResult> sendNotificationEmails(List<NotificationRequest> notificationRequests) {
+
+        Map<UUID, NotificationPreference> preferences = new HashMap<>();
+        BatchItemResult[] results = new BatchItemResult[notificationRequests.size()];
+        List<Integer> indexes = new ArrayList<>();
+        List<Notification> notifications = new ArrayList<>();
+        Map<NotificationType, List<Notification>> sending = new EnumMap<>(NotificationType.class);
+        Map<NotificationType, List<String>> recipients = new EnumMap<>(NotificationType.class);
 
-        UUID userId = notificationRequest.getUserId();
+        for (int i = 0; i < notificationRequests.size(); i++) {
+            NotificationRequest notificationRequest = notificationRequests.get(i);
+            notificationMetrics.recordRequest(notificationRequest.resolveType(), "batch");
+            UUID userId = notificationRequest.getUserId();
+            Notification notification;
+            String recipient;
+
+            try {
+                NotificationPreference userPreference = preferences.computeIfAbsent(userId, this::getEnabledPreference);
+                notification = buildNotification(notificationRequest);
+                recipient = userPreference.getRecipient(notification.getType());
+            } catch (IllegalArgumentException e) {
+                results[i] = BatchItemResult.builder()
+                        .index(i)
+                        .userId(userId)
+                        .error(e.getMessage())
+                        .build();
+                continue;
+            }
+
+            indexes.add(i);
+            notifications.add(notification);
+
+            if (!isScheduled(notification) && acquireSendPermit(notification, recipient)) {
+                sending.computeIfAbsent(notification.getType(), type -> new ArrayList<>()).add(notification);
+                recipients.computeIfAbsent(notification.getType(), type -> new ArrayList<>()).add(recipient);
+            }
+        }
+
+        sending.forEach((type, chunkable) -> {
+            int chunkSize = channelDispatcher.batchSize(type);
+            for (int from = 0; from < chunkable.size(); from += chunkSize) {
+                int to = Math.min(from + chunkSize, chunkable.size());
+                deliverChunk(type, chunkable.subList(from, to), recipients.get(type).subList(from, to));
+            }
+        });
+
+        List<Notification> saved = saveAll(notifications);
+
+        for (int i = 0; i < saved.size(); i++) {
+            Notification notification = saved.get(i);
+            results[indexes.get(i)] = BatchItemResult.builder()
+                    .index(indexes.get(i))
+                    .userId(notification.getUserId())
+                    .notificationId(notification.getId())
+                    .status(notification.getStatus())
+                    .build();
+        }
+
+        return List.of(results);
+    }
+
+    public StatusPage getStatusPage(String cursor, int limit) {
+        Limit fetchLimit = Limit.of(limit + 1);
+
+        List<NotificationResponse> summaries;
+        if (cursor == null) {
+            summaries = notificationRepository.findSummaries(fetchLimit);
+        } else {
+            StatusCursor position = StatusCursor.decode(cursor);
+            summaries = notificationRepository.findSummariesAfter(position.getCreatedOn(), position.getId(), fetchLimit);
+        }
+
+        return toPage(summaries, limit);
+    }
+
+    /**
+     * One user's notifications, newest first. First pages that fit in the recent-notifications
+     * cache are served from it; later pages and larger limits go to the database.
+     */
+    public StatusPage getUserStatusPage(UUID userId, String cursor, int limit) {
+        List<NotificationResponse> summaries;
+        if (cursor == null && limit <= recentNotificationCache.getDepth()) {
+            summaries = recentNotificationCache.getRecent(userId,
+                    depth -> notificationRepository.findUserSummaries(userId, Limit.of(depth)));
+        } else if (cursor == null) {
+            summaries = notificationRepository.findUserSummaries(userId, Limit.of(limit + 1));
+        } else {
+            StatusCursor position = StatusCursor.decode(cursor);
+            summaries = notificationRepository.findUserSummariesAfter(userId, position.getCreatedOn(), position.getId(),
+                    Limit.of(limit + 1));
+        }
+
+        return toPage(summaries, limit);
+    }
+
+    private StatusPage toPage(List<NotificationResponse> summaries, int limit) {
+        if (summaries.size() <= limit) {
+            return new StatusPage(summaries, null);
+        }
+
+        List<NotificationResponse> page = summaries.subList(0, limit);
+        return new StatusPage(page, StatusCursor.of(page.get(limit - 1)).encode());
+    }
+
+    @Transactional(readOnly = true)
+    public void streamStatuses(Consumer<NotificationResponse> consumer) {
+        try (Stream<NotificationResponse> summaries = notificationRepository.streamSummaries()) {
+            summaries.forEach(consumer);
+        }
+    }
+
+
+    public List<Notification> getNotificationUser(UUID userId) {
+        return notificationRepository.findAllByUserIdAndDeletedIsFalse(userId);
+    }
+
+    /**
+     * The user's full history, newest first: live rows plus whatever the archiver has moved
+     * to cold storage. A row caught mid-archival may be in both places and is returned once.
+     * Archived rows from before the user's last clear are left out, like their live rows.
+     */
+    public List<NotificationResponse> getNotificationHistory(UUID userId) {
+        Map<UUID, NotificationResponse> history = new HashMap<>();
+        LocalDateTime clearedBefore = historyCutoffRepository.findById(userId)
+                .map(HistoryCutoff::getClearedBefore)
+                .orElse(null);
+
+        notificationRepository.findAllByUserIdAndDeletedIsFalse(userId)
+                .forEach(notification -> history.put(notification.getId(), DtoMapper.fromNotification(notification)));
+        notificationArchive.findByUserId(userId).stream()
+                .filter(archived -> clearedBefore == null || archived.getCreatedOn().isAfter(clearedBefore))
+                .forEach(archived -> history.putIfAbsent(archived.getId(), DtoMapper.fromArchived(archived)));
+
+        return history.values().stream()
+                .sorted(Comparator.comparing(NotificationResponse::getCreatedOn).reversed())
+                .toList();
+    }
+
+
+    public List<StatsBucket> getStats(StatsGranularity granularity, LocalDateTime from, LocalDateTime to, UUID userId) {
+        return notificationStats.getStats(granularity, from, to, userId);
+    }
+
+    @Transactional
+    public int clearNotifications(UUID userId) {
+        notificationWriteBehind.flush();
+        LocalDateTime now = LocalDateTime.now();
+        int cleared = notificationRepository.softDeleteAllByUserId(userId, now);
+        recordClear(userId, now);
+        recentNotificationCache.invalidate(userId);
+        return cleared;
+    }
+
+    public void clearNotificationsAsync(UUID userId) {
+        notificationWriteBehind.flush();
+        LocalDateTime now = LocalDateTime.now();
+        recordClear(userId, now);
+        recentNotificationCache.invalidate(userId);
+        notificationCleanupService.clearNotificationsInBackground(userId, now,
+                () -> recentNotificationCache.invalidate(userId));
+    }
+
+
+    private void recordClear(UUID userId, LocalDateTime clearedBefore) {
+        if (historyCutoffRepository.moveCutoff(userId, clearedBefore) == 0 && !historyCutoffRepository.existsById(userId)) {
+            historyCutoffRepository.save(HistoryCutoff.builder()
+                    .userId(userId)
+                    .clearedBefore(clearedBefore)
+                    .build());
+        }
+    }
+
+    public NotificationPreference getPreferenceByUserId(UUID userId) {
+        return preferenceService.getPreference(userId)
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "No notification preference found for user with id %s.".formatted(userId)
+                ));
+    }
+
+    private NotificationPreference getEnabledPreference(UUID userId) {
         NotificationPreference userPreference = getPreferenceByUserId(userId);
 
         if (!userPreference.isEnabled()) {
@@ -40,53 +440,201 @@ public class EmailService {
                     "User with id %s does not allow to receive notifications.".formatted(userId)
             );
         }
+        return userPreference;
+    }
 
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(userPreference.getContactInfo());
-        message.setSubject(notificationRequest.getSubject());
-        message.setText(notificationRequest.getBody());
+    private Notification buildNotification(NotificationRequest notificationRequest) {
+        NotificationType type = notificationRequest.resolveType();
+        channelDispatcher.requireChannel(type);
 
-        Notification notification = Notification.builder()
-                .subject(notificationRequest.getSubject())
-                .body(notificationRequest.getBody())
-                .createdOn(LocalDateTime.now())
-                .userId(userId)
+        Notification.NotificationBuilder notification = Notification.builder();
+        if (notificationRequest.getTemplateId() != null) {
+            Map<String, String> variables = notificationRequest.getVariables() == null
+                    ? new HashMap<>()
+                    : new HashMap<>(notificationRequest.getVariables());
+            String templateId = notificationRequest.getTemplateId();
+            int version = templateService.latestVersion(templateId);
+            notification
+                    .subject(templateService.renderSubject(templateId, version, variables))
+                    .templateId(templateId)
+                    .templateVersion(version)
+                    .variables(variables);
+        } else if (notificationRequest.getBody() != null) {
+            notification
+                    .subject(notificationRequest.getSubject())
+                    .body(notificationRequest.getBody());
+        } else {
+            throw new IllegalArgumentException("A notification needs either a body or a templateId.");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime sendAt = notificationRequest.getSendAt();
+        if (sendAt != null && sendAt.isAfter(now)) {
+            notification
+                    .status(NotificationStatus.SCHEDULED)
+                    .sendAt(sendAt);
+        }
+
+        return notification
+                .createdOn(now)
+                .userId(notificationRequest.getUserId())
                 .deleted(false)
-                .type(NotificationType.EMAIL)
+                .type(type)
                 .build();
+    }
+
+    private boolean wantsDigest(NotificationRequest notificationRequest) {
+        return notificationRequest.isDigest() && digestCoalescer.isEnabled();
+    }
+
+    private static boolean isScheduled(Notification notification) {
+        return notification.getStatus() == NotificationStatus.SCHEDULED;
+    }
+
+    private boolean acquireSendPermit(Notification notification, String contactInfo) {
+        Duration wait = sendRateLimiter.tryAcquire(notification.getUserId());
+        if (wait.isZero()) {
+            return true;
+        }
+
+        // Not an attempt: the retry scheduler picks it up once the bucket has refilled.
+        notification.setStatus(NotificationStatus.DEFERRED);
+        notification.setNextAttemptAt(LocalDateTime.now().plus(wait));
+        notificationMetrics.recordOutcome(notification.getType(), NotificationStatus.DEFERRED, null);
+        log.info("Deferred a %s notification to %s by %d ms due to rate limiting."
+                .formatted(notification.getType(), contactInfo, wait.toMillis()));
+        return false;
+    }
+
+    private void deliver(Notification notification, String contactInfo) {
+        if (!acquireSendPermit(notification, contactInfo)) {
+            return;
+        }
 
         try {
-            mailSender.send(message);
-            notification.setStatus(NotificationStatus.SUCCEEDED);
+            Notification outgoing = outgoing(notification);
+            notificationMetrics.observeSend(notification.getType(), false, () -> channelDispatcher.send(outgoing, contactInfo));
+            recordSuccess(notification);
         } catch (Exception e) {
-            notification.setStatus(NotificationStatus.FAILED);
-            log.warn("There was an issue sending an email to %s due to %s.".formatted(userPreference.getContactInfo(), e.getMessage()));
+            recordFailure(notification, e);
+            log.warn("There was an issue sending a %s notification to %s due to %s."
+                    .formatted(notification.getType(), contactInfo, e.getMessage()));
         }
-
-        return notificationRepository.save(notification);
     }
 
-    public List<Notification> getAllStatuses() {
-        return notificationRepository.findAllByDeletedFalse();
+    private void deliverChunk(NotificationType type, List<Notification> notifications, List<String> recipients) {
+        Map<Integer, Exception> failures = Map.of();
+        Exception chunkFailure = null;
+
+        try {
+            List<Notification> outgoing = notifications.stream().map(this::outgoing).toList();
+            failures = notificationMetrics.observeSend(type, true,
+                    () -> channelDispatcher.sendAll(type, outgoing, recipients));
+        } catch (Exception e) {
+            chunkFailure = e;
+        }
+
+        if (chunkFailure != null || !failures.isEmpty()) {
+            log.warn("There was an issue sending a batch of %d %s notifications due to %s.".formatted(notifications.size(), type,
+                    chunkFailure != null ? chunkFailure.getMessage() : "%d failed recipients".formatted(failures.size())));
+        }
+
+        for (int i = 0; i < notifications.size(); i++) {
+            Exception failure = chunkFailure != null ? chunkFailure : failures.get(i);
+            if (failure != null) {
+                recordFailure(notifications.get(i), failure);
+            } else {
+                recordSuccess(notifications.get(i));
+            }
+        }
     }
 
+    private List<Notification> saveAll(List<Notification> notifications) {
+        if (notificationWriteBehind.isEnabled()) {
+            notifications.forEach(this::save);
+            return notifications;
+        }
+        List<Notification> saved = notificationMetrics.observeSave(() -> {
+            bodyStore.storeAll(notifications);
+            return notificationRepository.saveAll(notifications);
+        });
+        notifications.forEach(this::afterSave);
+        return saved;
+    }
 
-    public List<Notification> getNotificationUser(UUID userId) {
-        return notificationRepository.findAllByUserIdAndDeletedIsFalse(userId);
+    private Notification save(Notification notification) {
+        Notification saved = notificationWriteBehind.isEnabled()
+                ? notificationWriteBehind.save(notification)
+                : notificationMetrics.observeSave(() -> {
+                    bodyStore.store(notification);
+                    return notificationRepository.save(notification);
+                });
+        afterSave(notification);
+        if (saved != null && saved != notification) {
+            // A merge returns a copy, which does not carry the transient counted status over.
+            saved.setCountedStatus(notification.getCountedStatus());
+        }
+        return saved;
     }
 
+    /**
+     * Stores the status, attempts and next attempt of a notification that was saved before,
+     * leaving it alone if the user cleared it in the meantime.
+     */
+    private void saveOutcome(Notification notification) {
+        IntSupplier update = () -> notificationRepository.updateOutcome(notification.getId(), notification.getStatus(),
+                notification.getAttempts(), notification.getNextAttemptAt());
+        int updated = notificationMetrics.observeSave(() -> notificationWriteBehind.isEnabled()
+                ? notificationWriteBehind.update(notification, update)
+                : update.getAsInt());
+        if (updated == 0) {
+            log.debug("Notification %s was cleared while it was being delivered, its outcome is not stored."
+                    .formatted(notification.getId()));
+            return;
+        }
+        afterSave(notification);
+    }
 
-    public void clearNotifications(UUID userId) {
-        List<Notification> notifications = getNotificationUser(userId);
+    private void afterSave(Notification notification) {
+        notificationStats.record(notification);
+        recentNotificationCache.update(notification);
+        if (notification.getId() != null) {
+            eventPublisher.publishEvent(NotificationStatusEvent.of(notification));
+        }
+    }
 
-        for (Notification notification : notifications) {
-            notification.setDeleted(true);
+    /**
+     * The notification with its body in place: rendered from its template, or loaded by
+     * hash when it was read back from the database for a retry.
+     */
+    private Notification outgoing(Notification notification) {
+        if (notification.getTemplateId() != null) {
+            return templateService.withBody(notification);
+        }
+        if (notification.getBody() == null && notification.getBodyHash() != null) {
+            notification.setBody(bodyStore.load(notification.getBodyHash()));
         }
-        notificationRepository.saveAll(notifications);
+        return notification;
     }
 
+    private void recordSuccess(Notification notification) {
+        notification.setAttempts(notification.getAttempts() + 1);
+        notification.setStatus(NotificationStatus.SUCCEEDED);
+        notification.setNextAttemptAt(null);
+        notificationMetrics.recordOutcome(notification.getType(), NotificationStatus.SUCCEEDED, null);
+    }
 
-    public NotificationPreference getPreferenceByUserId(UUID userId) {
-        return new NotificationPreference(userId, true, "stoyan.stoyanov.kz@mail.bg");
+    private void recordFailure(Notification notification, Throwable cause) {
+        int attempts = notification.getAttempts() + 1;
+        notification.setAttempts(attempts);
+
+        if (retryPolicy.isExhausted(attempts)) {
+            notification.setStatus(NotificationStatus.DEAD);
+            notification.setNextAttemptAt(null);
+        } else {
+            notification.setStatus(NotificationStatus.RETRYING);
+            notification.setNextAttemptAt(LocalDateTime.now().plus(retryPolicy.backoff(attempts)));
+        }
+        notificationMetrics.recordOutcome(notification.getType(), notification.getStatus(), cause);
     }
 }
@@ -0,0 +1,164 @@
+package com.dodge_notification.service;
+
+import com.dodge_notification.dto.ArchivedNotification;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cold storage for notification history. Each archival run writes immutable, gzip-compressed
+ * NDJSON segments, one per calendar month of {@code createdOn}, next to a small sidecar listing
+ * the users the segment contains. Reads by user only open the segments whose sidecar names them.
+ * <p>
+ * Each instance only archives the partitions it owns, so {@code notification.archive.directory}
+ * must be storage every instance mounts (for example an NFS or EFS volume); a local directory
+ * would leave each instance with a fraction of the history. Segment names carry a per-process
+ * writer id so instances never write to the same file.
+ */
+@Slf4j
+@Service
+public class NotificationArchive {
+
+    static final String SEGMENT_SUFFIX = ".ndjson.gz";
+    static final String USERS_SUFFIX = ".users";
+
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final Cache<Path, Set<UUID>> segmentUsers;
+    private final AtomicLong sequence = new AtomicLong();
+    private final String writerId = UUID.randomUUID().toString().substring(0, 8);
+
+    @Autowired
+    public NotificationArchive(ObjectMapper objectMapper,
+                               @Value("${notification.archive.directory:./archive}") String directory,
+                               @Value("${notification.archive.index.maximum-size:10000}") long indexMaximumSize) {
+        this.objectMapper = objectMapper;
+        this.directory = Path.of(directory);
+        this.segmentUsers = Caffeine.newBuilder().maximumSize(indexMaximumSize).build();
+    }
+
+    /**
+     * Writes the notifications as a new segment of the given month. Both files are written under
+     * a temporary name and moved into place, the sidecar first, so a reader never sees a segment
+     * without its user list.
+     */
+    public Path write(YearMonth month, Collection<ArchivedNotification> notifications) {
+        String name = "notifications-%s-%d-%s-%d".formatted(month, System.currentTimeMillis(), writerId, sequence.incrementAndGet());
+        Path segment = directory.resolve(name + SEGMENT_SUFFIX);
+        Path users = directory.resolve(name + USERS_SUFFIX);
+
+        try {
+            Files.createDirectories(directory);
+
+            Path segmentTmp = directory.resolve(name + SEGMENT_SUFFIX + ".tmp");
+            try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(Files.newOutputStream(segmentTmp)), StandardCharsets.UTF_8))) {
+                for (ArchivedNotification notification : notifications) {
+                    writer.write(objectMapper.writeValueAsString(notification));
+                    writer.newLine();
+                }
+            }
+
+            Set<UUID> userIds = new HashSet<>();
+            notifications.forEach(notification -> userIds.add(notification.getUserId()));
+            Path usersTmp = directory.resolve(name + USERS_SUFFIX + ".tmp");
+            Files.write(usersTmp, userIds.stream().map(UUID::toString).toList(), StandardCharsets.UTF_8);
+
+            Files.move(usersTmp, users, StandardCopyOption.ATOMIC_MOVE);
+            Files.move(segmentTmp, segment, StandardCopyOption.ATOMIC_MOVE);
+            segmentUsers.put(segment, userIds);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write archive segment %s.".formatted(segment), e);
+        }
+
+        log.info("Archived %d notifications of %s to %s.".formatted(notifications.size(), month, segment));
+        return segment;
+    }
+
+    /**
+     * Returns the archived notifications of the user. Archival is at-least-once, so a row
+     * written twice by an interrupted run is returned once.
+     */
+    public List<ArchivedNotification> findByUserId(UUID userId) {
+        Map<UUID, ArchivedNotification> found = new LinkedHashMap<>();
+
+        for (Path segment : segments()) {
+            if (!usersOf(segment).contains(userId)) {
+                continue;
+            }
+            readSegment(segment).stream()
+                    .filter(notification -> userId.equals(notification.getUserId()))
+                    .forEach(notification -> found.putIfAbsent(notification.getId(), notification));
+        }
+        return new ArrayList<>(found.values());
+    }
+
+    private List<Path> segments() {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Set<UUID> usersOf(Path segment) {
+        return segmentUsers.get(segment, key -> {
+            String name = key.getFileName().toString();
+            Path users = key.resolveSibling(name.substring(0, name.length() - SEGMENT_SUFFIX.length()) + USERS_SUFFIX);
+            try {
+                Set<UUID> userIds = new HashSet<>();
+                Files.readAllLines(users, StandardCharsets.UTF_8).forEach(line -> userIds.add(UUID.fromString(line)));
+                return userIds;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read archive index %s.".formatted(users), e);
+            }
+        });
+    }
+
+    private List<ArchivedNotification> readSegment(Path segment) {
+        List<ArchivedNotification> notifications = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(segment)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                notifications.add(objectMapper.readValue(line, ArchivedNotification.class));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read archive segment %s.".formatted(segment), e);
+        }
+        return notifications;
+    }
+}
@@ -0,0 +1,120 @@
+package com.dodge_notification.service;
+
+import com.dodge_notification.dto.ArchivedNotification;
+import com.dodge_notification.model.Notification;
+import com.dodge_notification.model.NotificationStatus;
+import com.dodge_notification.repository.NotificationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Moves notifications that reached a final status and are older than the retention window
+ * out of the notifications table into {@link NotificationArchive}, in bounded chunks. A chunk
+ * is deleted only after its segments are on disk, so a crash can at worst archive rows twice.
+ * Each instance archives the partitions it owns into the shared archive directory.
+ */
+@Slf4j
+@Service
+public class NotificationArchiver {
+
+    private static final Set<NotificationStatus> ARCHIVABLE = Set.of(NotificationStatus.SUCCEEDED, NotificationStatus.FAILED,
+            NotificationStatus.DEAD, NotificationStatus.DIGESTED);
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationArchive notificationArchive;
+    private final BodyStore bodyStore;
+    private final PartitionLeaseManager partitionLeaseManager;
+    private final boolean enabled;
+    private final long afterDays;
+    private final int chunkSize;
+
+    @Autowired
+    public NotificationArchiver(NotificationRepository notificationRepository,
+                                NotificationArchive notificationArchive,
+                                BodyStore bodyStore,
+                                PartitionLeaseManager partitionLeaseManager,
+                                @Value("${notification.archive.enabled:true}") boolean enabled,
+                                @Value("${notification.archive.after-days:90}") long afterDays,
+                                @Value("${notification.archive.chunk-size:10000}") int chunkSize) {
+        this.notificationRepository = notificationRepository;
+        this.notificationArchive = notificationArchive;
+        this.bodyStore = bodyStore;
+        this.partitionLeaseManager = partitionLeaseManager;
+        this.enabled = enabled;
+        this.afterDays = afterDays;
+        this.chunkSize = chunkSize;
+    }
+
+    @Scheduled(fixedDelayString = "${notification.archive.interval-ms:86400000}",
+            initialDelayString = "${notification.archive.initial-delay-ms:120000}")
+    public void archiveOldNotifications() {
+        Set<Integer> partitions = partitionLeaseManager.ownedPartitions();
+        if (!enabled || partitions.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(afterDays);
+        int archived = 0;
+        List<Notification> chunk;
+
+        do {
+            chunk = notificationRepository.findArchivable(ARCHIVABLE, cutoff, partitions, Limit.of(chunkSize));
+            if (!chunk.isEmpty()) {
+                archive(chunk);
+                notificationRepository.deleteAllByIdInBatch(chunk.stream().map(Notification::getId).toList());
+            }
+            archived += chunk.size();
+        } while (chunk.size() == chunkSize);
+
+        log.info("Archived %d notifications created before %s.".formatted(archived, cutoff));
+    }
+
+    private void archive(List<Notification> notifications) {
+        Map<YearMonth, List<ArchivedNotification>> byMonth = notifications.stream()
+                .collect(Collectors.groupingBy(notification -> YearMonth.from(notification.getCreatedOn()),
+                        TreeMap::new,
+                        Collectors.mapping(this::toArchived, Collectors.toList())));
+
+        byMonth.forEach(notificationArchive::write);
+    }
+
+    private ArchivedNotification toArchived(Notification notification) {
+        return ArchivedNotification.builder()
+                .id(notification.getId())
+                .userId(notification.getUserId())
+                .subject(notification.getSubject())
+                .body(bodyOf(notification))
+                .templateId(notification.getTemplateId())
+                .templateVersion(notification.getTemplateVersion())
+                .variables(notification.getVariables())
+                .createdOn(notification.getCreatedOn())
+                .type(notification.getType())
+                .status(notification.getStatus())
+                .attempts(notification.getAttempts())
+                .build();
+    }
+
+    private String bodyOf(Notification notification) {
+        if (notification.getBodyHash() == null) {
+            return null;
+        }
+        try {
+            return bodyStore.load(notification.getBodyHash());
+        } catch (IllegalStateException e) {
+            log.warn("Archiving notification %s without its body: %s".formatted(notification.getId(), e.getMessage()));
+            return null;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.dodge_notification.service;
+
+import com.dodge_notification.repository.NotificationBodyRepository;
+import com.dodge_notification.repository.NotificationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Removes notification rows in bounded chunks, so clearing a heavy user or purging
+ * old history never holds row locks on the whole set in one transaction. Purging covers the
+ * partitions this instance owns; orphaned bodies are purged by the owner of partition 0.
+ */
+@Slf4j
+@Service
+public class NotificationCleanupService {
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationBodyRepository notificationBodyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor taskExecutor;
+    private final PartitionLeaseManager partitionLeaseManager;
+    private final int chunkSize;
+    private final long retentionDays;
+
+    @Autowired
+    public NotificationCleanupService(NotificationRepository notificationRepository,
+                                      NotificationBodyRepository notificationBodyRepository,
+                                      TransactionTemplate transactionTemplate,
+                                      @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                                      PartitionLeaseManager partitionLeaseManager,
+                                      @Value("${notification.cleanup.chunk-size:1000}") int chunkSize,
+                                      @Value("${notification.purge.retention-days:30}") long retentionDays) {
+        this.notificationRepository = notificationRepository;
+        this.notificationBodyRepository = notificationBodyRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.taskExecutor = taskExecutor;
+        this.partitionLeaseManager = partitionLeaseManager;
+        this.chunkSize = chunkSize;
+        this.retentionDays = retentionDays;
+    }
+
+    /**
+     * Soft-deletes the user's notifications created up to {@code clearedAt} chunk by chunk on the
+     * task executor, then runs {@code onCleared} once the last chunk is committed.
+     */
+    public void clearNotificationsInBackground(UUID userId, LocalDateTime clearedAt, Runnable onCleared) {
+        taskExecutor.execute(() -> {
+            LocalDateTime deletedOn = LocalDateTime.now();
+            int cleared = 0;
+            int chunk;
+
+            do {
+                chunk = transactionTemplate.execute(status -> {
+                    List<UUID> ids = notificationRepository.findActiveIdsByUserId(userId, clearedAt, Limit.of(chunkSize));
+                    return ids.isEmpty() ? 0 : notificationRepository.softDeleteAllByIdIn(ids, deletedOn);
+                });
+                cleared += chunk;
+            } while (chunk == chunkSize);
+
+            onCleared.run();
+            log.info("Cleared %d notifications of user %s.".formatted(cleared, userId));
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${notification.purge.interval-ms:3600000}",
+            initialDelayString = "${notification.purge.initial-delay-ms:60000}")
+    public void purgeDeletedNotifications() {
+        Set<Integer> partitions = partitionLeaseManager.ownedPartitions();
+        if (partitions.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int stamped = transactionTemplate.execute(status -> notificationRepository.stampMissingDeletedOn(now, partitions));
+        if (stamped > 0) {
+            log.info("Stamped %d notifications deleted without a deletion time.".formatted(stamped));
+        }
+
+        LocalDateTime cutoff = now.minusDays(retentionDays);
+        int purged = 0;
+        List<UUID> ids;
+
+        do {
+            ids = notificationRepository.findPurgeableIds(cutoff, partitions, Limit.of(chunkSize));
+            if (!ids.isEmpty()) {
+                notificationRepository.deleteAllByIdInBatch(ids);
+            }
+            purged += ids.size();
+        } while (ids.size() == chunkSize);
+
+        if (purged > 0) {
+            log.info("Purged %d notifications deleted before %s.".formatted(purged, cutoff));
+        }
+
+        if (!partitionLeaseManager.owns(0)) {
+            return;
+        }
+        // Bodies are stored or touched just before their notification, so only ones unused for a day can be orphans.
+        LocalDateTime bodyCutoff = LocalDateTime.now().minusDays(1);
+        int bodies = transactionTemplate.execute(status -> notificationBodyRepository.deleteUnreferencedBefore(bodyCutoff));
+        if (bodies > 0) {
+            log.info("Purged %d unreferenced notification bodies.".formatted(bodies));
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.dodge_notification.service;
+
+import com.dodge_notification.dto.NotificationRequest;
+import com.dodge_notification.model.Notification;
+import com.dodge_notification.model.NotificationStatus;
+import com.dodge_notification.model.NotificationType;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Suppresses repeated sends of the same notification. Requests are keyed by their
+ * {@code Idempotency-Key} when the client sends one, otherwise by a hash of channel, user
+ * and content (subject and body, or template and variables) within a short window. The
+ * first request runs; duplicates get its result, and a duplicate arriving while the first
+ * is still in flight waits for it instead of sending again. Failed requests are forgotten
+ * so the client can retry them.
+ * <p>
+ * The cache holds an immutable snapshot of the accepted notification (its id and status at
+ * acceptance), never the entity itself: the entity keeps changing as it is retried, digested
+ * or cleared, and sharing it would hand every duplicate caller the same mutable instance.
+ * Each duplicate gets its own copy built from the snapshot.
+ * <p>
+ * The cache is per instance: a retry that lands on another instance is not recognized.
+ */
+@Service
+public class NotificationDeduplicator implements MeterBinder {
+
+    private static final String KEY_PREFIX = "key:";
+    private static final String CONTENT_PREFIX = "content:";
+
+    private final boolean enabled;
+    private final Cache<String, CompletableFuture<Accepted>> cache;
+
+    @Autowired
+    public NotificationDeduplicator(@Value("${notification.dedup.enabled:true}") boolean enabled,
+                                    @Value("${notification.dedup.maximum-size:100000}") long maximumSize,
+                                    @Value("${notification.dedup.key-ttl:24h}") Duration keyTtl,
+                                    @Value("${notification.dedup.content-window:10m}") Duration contentWindow) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new DedupExpiry(keyTtl, contentWindow))
+                .recordStats()
+                .build();
+    }
+
+    public Notification deduplicate(NotificationRequest request, String idempotencyKey, Supplier<Notification> send) {
+        if (!enabled) {
+            return send.get();
+        }
+
+        String key = idempotencyKey != null && !idempotencyKey.isBlank()
+                ? KEY_PREFIX + request.getUserId() + ":" + idempotencyKey
+                : CONTENT_PREFIX + contentHash(request);
+
+        CompletableFuture<Accepted> created = new CompletableFuture<>();
+        CompletableFuture<Accepted> existing = cache.get(key, ignored -> created);
+
+        if (existing != created) {
+            try {
+                return existing.join().toNotification();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        try {
+            Notification notification = send.get();
+            created.complete(Accepted.of(notification));
+            return notification;
+        } catch (RuntimeException e) {
+            cache.asMap().remove(key, created);
+            created.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "notification.dedup");
+    }
+
+    private static String contentHash(NotificationRequest request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(request.resolveType().name().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(String.valueOf(request.getUserId()).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(String.valueOf(request.getSubject()).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(String.valueOf(request.getBody()).getBytes(StandardCharsets.UTF_8));
+            // The same text scheduled for another time, or sent alone instead of in a digest, is a different notification.
+            digest.update((byte) 0);
+            digest.update(String.valueOf(request.getSendAt()).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update((byte) (request.isDigest() ? 1 : 0));
+            if (request.getTemplateId() != null) {
+                digest.update((byte) 0);
+                digest.update(request.getTemplateId().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                digest.update(String.valueOf(request.getVariables() == null ? null : new TreeMap<>(request.getVariables()))
+                        .getBytes(StandardCharsets.UTF_8));
+            }
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Accepted(UUID id, UUID userId, NotificationType type, String subject,
+                            NotificationStatus status, LocalDateTime createdOn) {
+
+        static Accepted of(Notification notification) {
+            return new Accepted(notification.getId(), notification.getUserId(), notification.getType(),
+                    notification.getSubject(), notification.getStatus(), notification.getCreatedOn());
+        }
+
+        Notification toNotification() {
+            return Notification.builder()
+                    .id(id)
+                    .userId(userId)
+                    .type(type)
+                    .subject(subject)
+                    .status(status)
+                    .createdOn(createdOn)
+                    .build();
+        }
+    }
+
+    private record DedupExpiry(Duration keyTtl, Duration contentWindow)
+            implements Expiry<String, CompletableFuture<Accepted>> {
+
+        @Override
+        public long expireAfterCreate(String key, CompletableFuture<Accepted> result, long currentTime) {
+            return (key.startsWith(KEY_PREFIX) ? keyTtl : contentWindow).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CompletableFuture<Accepted> result, long currentTime,
+                                      long currentDuration) {
+            return expireAfterCreate(key, result, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, CompletableFuture<Accepted> result, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
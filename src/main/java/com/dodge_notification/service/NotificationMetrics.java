@@ -0,0 +1,80 @@
+package com.dodge_notification.service;
+
+import com.dodge_notification.model.NotificationStatus;
+import com.dodge_notification.model.NotificationType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Timers, counters and trace spans for the notification pipeline. Sends and saves are
+ * recorded as observations, which Actuator turns into both a timer and a span. Counters are
+ * registered once per tag combination and cached, so recording on the hot path is a map lookup.
+ */
+@Component
+public class NotificationMetrics {
+
+    public static final String SEND_OBSERVATION = "notification.mail.send";
+    public static final String SAVE_OBSERVATION = "notification.repository.save";
+
+    private final MeterRegistry meterRegistry;
+    private final ObservationRegistry observationRegistry;
+    private final Map<RequestKey, Counter> requestCounters = new ConcurrentHashMap<>();
+    private final Map<OutcomeKey, Counter> outcomeCounters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public NotificationMetrics(MeterRegistry meterRegistry, ObservationRegistry observationRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.observationRegistry = observationRegistry;
+    }
+
+    public void observeSend(NotificationType type, boolean batch, Runnable send) {
+        sendObservation(type, batch).observe(send);
+    }
+
+    public <T> T observeSend(NotificationType type, boolean batch, Supplier<T> send) {
+        return sendObservation(type, batch).observe(send);
+    }
+
+    public <T> T observeSave(Supplier<T> save) {
+        return Observation.createNotStarted(SAVE_OBSERVATION, observationRegistry)
+                .observe(save);
+    }
+
+    public void recordRequest(NotificationType type, String mode) {
+        requestCounters.computeIfAbsent(new RequestKey(type, mode), key -> Counter.builder("notification.requests")
+                        .tag("type", key.type().name())
+                        .tag("mode", key.mode())
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    public void recordOutcome(NotificationType type, NotificationStatus status, Throwable cause) {
+        String causeName = cause == null ? "none" : cause.getClass().getSimpleName();
+        outcomeCounters.computeIfAbsent(new OutcomeKey(type, status, causeName), key -> Counter.builder("notification.deliveries")
+                        .tag("type", key.type().name())
+                        .tag("status", key.status().name())
+                        .tag("cause", key.cause())
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    private Observation sendObservation(NotificationType type, boolean batch) {
+        return Observation.createNotStarted(SEND_OBSERVATION, observationRegistry)
+                .lowCardinalityKeyValue("type", type.name())
+                .lowCardinalityKeyValue("batch", String.valueOf(batch));
+    }
+
+    private record RequestKey(NotificationType type, String mode) {
+    }
+
+    private record OutcomeKey(NotificationType type, NotificationStatus status, String cause) {
+    }
+}
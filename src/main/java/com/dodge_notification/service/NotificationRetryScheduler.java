@@ -0,0 +1,83 @@
+package com.dodge_notification.service;
+
+import com.dodge_notification.channel.ChannelDispatcher;
+import com.dodge_notification.model.Notification;
+import com.dodge_notification.model.NotificationStatus;
+import com.dodge_notification.repository.NotificationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Outbox relay for the notifications table. Due {@code RETRYING} rows, and {@code PENDING}
+ * rows whose worker never reported back, are claimed in batches by pushing their next
+ * attempt one lease into the future inside a {@code SKIP LOCKED} transaction, then handed
+ * to the workers of their channel. A crash between claim and delivery only delays the row until
+ * the lease runs out, which gives at-least-once delivery. Only rows in partitions this instance
+ * owns are polled, so instances do not compete for the same rows.
+ */
+@Slf4j
+@Component
+public class NotificationRetryScheduler {
+
+    private static final Set<NotificationStatus> RETRYABLE = Set.of(NotificationStatus.PENDING, NotificationStatus.RETRYING, NotificationStatus.DEFERRED);
+
+    private final NotificationRepository notificationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ChannelDispatcher channelDispatcher;
+    private final EmailService emailService;
+    private final RetryPolicy retryPolicy;
+    private final PartitionLeaseManager partitionLeaseManager;
+    private final int batchSize;
+
+    @Autowired
+    public NotificationRetryScheduler(NotificationRepository notificationRepository,
+                                      TransactionTemplate transactionTemplate,
+                                      ChannelDispatcher channelDispatcher,
+                                      EmailService emailService,
+                                      RetryPolicy retryPolicy,
+                                      PartitionLeaseManager partitionLeaseManager,
+                                      @Value("${notification.retry.batch-size:100}") int batchSize) {
+        this.notificationRepository = notificationRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.channelDispatcher = channelDispatcher;
+        this.emailService = emailService;
+        this.retryPolicy = retryPolicy;
+        this.partitionLeaseManager = partitionLeaseManager;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${notification.retry.poll-interval-ms:5000}")
+    public void retryDueNotifications() {
+        List<Notification> claimed = claimDue();
+
+        for (Notification notification : claimed) {
+            if (!channelDispatcher.offer(notification.getType(), () -> emailService.redeliver(notification))) {
+                log.debug("Delivery queue is full, %s stays claimed until its lease expires.".formatted(notification.getId()));
+            }
+        }
+    }
+
+    List<Notification> claimDue() {
+        Set<Integer> partitions = partitionLeaseManager.ownedPartitions();
+        if (partitions.isEmpty()) {
+            return List.of();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime leaseUntil = now.plus(retryPolicy.getLease());
+
+        return transactionTemplate.execute(status -> {
+            List<Notification> due = notificationRepository.findDueForUpdate(RETRYABLE, now, partitions, Limit.of(batchSize));
+            due.forEach(notification -> notification.setNextAttemptAt(leaseUntil));
+            return due;
+        });
+    }
+}
@@ -0,0 +1,190 @@
+package com.dodge_notification.service;
+
+import com.dodge_notification.dto.StatsBucket;
+import com.dodge_notification.model.Notification;
+import com.dodge_notification.model.NotificationStat;
+import com.dodge_notification.model.NotificationStatus;
+import com.dodge_notification.model.NotificationType;
+import com.dodge_notification.model.StatsGranularity;
+import com.dodge_notification.repository.NotificationStatRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Delivery statistics by status, type and time bucket, kept as counters instead of being
+ * computed from the notifications table. Every status change moves one count from the old
+ * status to the new one in in-memory per-key deltas; a scheduled flush adds them to
+ * {@link NotificationStat} rows, and reads combine those rows with whatever has not been
+ * flushed yet.
+ * <p>
+ * Buckets hold the current status of the notifications created in them: a notification that
+ * is retried and then succeeds counts once, under SUCCEEDED, in the bucket of its createdOn.
+ */
+@Slf4j
+@Service
+public class NotificationStats implements DisposableBean {
+
+    private final NotificationStatRepository statRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final long minuteRetentionHours;
+    private final long hourRetentionDays;
+    // Deltas that net out to zero are dropped by merge, so the map only holds unflushed counts.
+    private final Map<StatKey, Long> pending = new ConcurrentHashMap<>();
+
+    @Autowired
+    public NotificationStats(NotificationStatRepository statRepository,
+                             TransactionTemplate transactionTemplate,
+                             @Value("${notification.stats.enabled:true}") boolean enabled,
+                             @Value("${notification.stats.minute-retention-hours:48}") long minuteRetentionHours,
+                             @Value("${notification.stats.hour-retention-days:90}") long hourRetentionDays) {
+        this.statRepository = statRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.minuteRetentionHours = minuteRetentionHours;
+        this.hourRetentionDays = hourRetentionDays;
+    }
+
+    /**
+     * Moves the notification's count from the status it was last counted under, if any, to
+     * its current status.
+     */
+    public void record(Notification notification) {
+        NotificationStatus previous = notification.getCountedStatus();
+        NotificationStatus current = notification.getStatus();
+        if (!enabled || current == null || current == previous) {
+            return;
+        }
+
+        LocalDateTime createdOn = notification.getCreatedOn() != null ? notification.getCreatedOn() : LocalDateTime.now();
+        for (StatsGranularity granularity : StatsGranularity.values()) {
+            LocalDateTime bucket = granularity.bucketOf(createdOn);
+            if (previous != null) {
+                add(new StatKey(granularity, bucket, null, notification.getType(), previous), -1);
+                add(new StatKey(granularity, bucket, notification.getUserId(), notification.getType(), previous), -1);
+            }
+            add(new StatKey(granularity, bucket, null, notification.getType(), current), 1);
+            add(new StatKey(granularity, bucket, notification.getUserId(), notification.getType(), current), 1);
+        }
+        notification.setCountedStatus(current);
+    }
+
+    /**
+     * Counts in the buckets starting in {@code [from, to)}, across all users when
+     * {@code userId} is null.
+     */
+    public List<StatsBucket> getStats(StatsGranularity granularity, LocalDateTime from, LocalDateTime to, UUID userId) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("Stats range start %s must be before its end %s.".formatted(from, to));
+        }
+
+        Map<StatKey, Long> counts = new HashMap<>();
+        List<NotificationStat> stored = userId == null
+                ? statRepository.findTotals(granularity, from, to)
+                : statRepository.findByUser(granularity, userId, from, to);
+        stored.forEach(stat -> counts.merge(new StatKey(stat.getGranularity(), stat.getBucketStart(), stat.getUserId(),
+                stat.getType(), stat.getStatus()), stat.getCount(), Long::sum));
+
+        pending.forEach((key, delta) -> {
+            if (key.granularity() == granularity && Objects.equals(key.userId(), userId)
+                    && !key.bucketStart().isBefore(from) && key.bucketStart().isBefore(to)) {
+                counts.merge(key, delta, Long::sum);
+            }
+        });
+
+        return counts.entrySet().stream()
+                .filter(count -> count.getValue() > 0)
+                .map(count -> StatsBucket.builder()
+                        .bucketStart(count.getKey().bucketStart())
+                        .type(count.getKey().type())
+                        .status(count.getKey().status())
+                        .count(count.getValue())
+                        .build())
+                .sorted(Comparator.comparing(StatsBucket::getBucketStart)
+                        .thenComparing(StatsBucket::getType)
+                        .thenComparing(StatsBucket::getStatus))
+                .toList();
+    }
+
+    @Scheduled(fixedDelayString = "${notification.stats.flush-interval-ms:5000}",
+            initialDelayString = "${notification.stats.flush-interval-ms:5000}")
+    public void flush() {
+        Map<StatKey, Long> deltas = new HashMap<>();
+
+        // Removing takes the whole delta atomically; changes recorded after it start a new entry.
+        for (StatKey key : pending.keySet()) {
+            Long delta = pending.remove(key);
+            if (delta != null) {
+                deltas.put(key, delta);
+            }
+        }
+
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> deltas.forEach(this::persist));
+        } catch (RuntimeException e) {
+            // Typically another instance inserted the same bucket first; the next flush updates it.
+            log.warn("Could not flush %d notification stats, retrying on the next flush: %s".formatted(deltas.size(), e.getMessage()));
+            deltas.forEach(this::add);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${notification.stats.purge-interval-ms:3600000}",
+            initialDelayString = "${notification.stats.purge-interval-ms:3600000}")
+    public void purgeExpiredBuckets() {
+        LocalDateTime now = LocalDateTime.now();
+        int purged = transactionTemplate.execute(status ->
+                statRepository.deleteBucketsBefore(StatsGranularity.MINUTE, now.minusHours(minuteRetentionHours))
+                        + statRepository.deleteBucketsBefore(StatsGranularity.HOUR, now.minusDays(hourRetentionDays)));
+
+        log.info("Purged %d expired notification stats buckets.".formatted(purged));
+    }
+
+    @Override
+    public void destroy() {
+        flush();
+    }
+
+    private void add(StatKey key, long delta) {
+        pending.merge(key, delta, (existing, added) -> existing + added == 0 ? null : existing + added);
+    }
+
+    private void persist(StatKey key, long delta) {
+        if (statRepository.increment(key.id(), delta) == 0) {
+            statRepository.save(NotificationStat.builder()
+                    .id(key.id())
+                    .granularity(key.granularity())
+                    .bucketStart(key.bucketStart())
+                    .userId(key.userId())
+                    .type(key.type())
+                    .status(key.status())
+                    .count(delta)
+                    .build());
+        }
+    }
+
+    private record StatKey(StatsGranularity granularity, LocalDateTime bucketStart, UUID userId,
+                           NotificationType type, NotificationStatus status) {
+
+        String id() {
+            return "%s|%s|%s|%s|%s".formatted(granularity, bucketStart, userId == null ? "*" : userId, type, status);
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.dodge_notification.service;
+
+import com.dodge_notification.model.Notification;
+import com.dodge_notification.model.UuidV7;
+import com.dodge_notification.repository.NotificationRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntSupplier;
+
+/**
+ * Optional write-behind for notification saves. Saved notifications get their id right away
+ * and are collected by id, so repeated saves of one notification collapse into its latest
+ * state, then written with one {@code saveAll} per {@code batch-size} rows, which Hibernate
+ * sends as JDBC batches. A batch is written when it is full or every {@code flush-interval-ms}.
+ * <p>
+ * A flush writes each row that was buffered when it started at most once. Rows that fail to
+ * write go back into the buffer, and flushes then pause for {@code retry-backoff-ms}, doubling
+ * up to {@code max-retry-backoff-ms} while writes keep failing. Rows the database rejects
+ * outright are parked as dead letters, counted by a gauge, until the notification is saved again.
+ * <p>
+ * The buffer is bounded: a save that finds {@code max-pending} rows waiting flushes them itself,
+ * and writes its own row straight away when that does not make room. Flushes and direct writes
+ * are serialized so an update can never overtake its own insert. On shutdown the buffer is
+ * drained, and saves arriving after that are written straight away.
+ */
+@Slf4j
+@Component
+public class NotificationWriteBehind implements MeterBinder, DisposableBean {
+
+    private final NotificationRepository notificationRepository;
+    private final BodyStore bodyStore;
+    private final NotificationMetrics notificationMetrics;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxPending;
+    private final long retryBackoffMillis;
+    private final long maxRetryBackoffMillis;
+    private final Executor flusher;
+    private final Map<UUID, Notification> pending = new LinkedHashMap<>();
+    private final Map<UUID, Notification> deadLetters = new LinkedHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private volatile boolean closed;
+    // Guarded by flushLock; zero while writes succeed.
+    private long backoffMillis;
+    private long retryAtNanos;
+
+    @Autowired
+    public NotificationWriteBehind(NotificationRepository notificationRepository,
+                                   BodyStore bodyStore,
+                                   NotificationMetrics notificationMetrics,
+                                   @Value("${notification.write-behind.enabled:false}") boolean enabled,
+                                   @Value("${notification.write-behind.batch-size:100}") int batchSize,
+                                   @Value("${notification.write-behind.max-pending:10000}") int maxPending,
+                                   @Value("${notification.write-behind.retry-backoff-ms:1000}") long retryBackoffMillis,
+                                   @Value("${notification.write-behind.max-retry-backoff-ms:30000}") long maxRetryBackoffMillis) {
+        this(notificationRepository, bodyStore, notificationMetrics, enabled, batchSize, maxPending,
+                retryBackoffMillis, maxRetryBackoffMillis,
+                Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "notification-write-behind");
+                    thread.setDaemon(true);
+                    return thread;
+                }));
+    }
+
+    NotificationWriteBehind(NotificationRepository notificationRepository, BodyStore bodyStore,
+                            NotificationMetrics notificationMetrics, boolean enabled, int batchSize, int maxPending,
+                            long retryBackoffMillis, long maxRetryBackoffMillis, Executor flusher) {
+        this.notificationRepository = notificationRepository;
+        this.bodyStore = bodyStore;
+        this.notificationMetrics = notificationMetrics;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxPending = maxPending;
+        this.retryBackoffMillis = retryBackoffMillis;
+        this.maxRetryBackoffMillis = maxRetryBackoffMillis;
+        this.flusher = flusher;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Buffers the notification, assigning its id and creation time if it has none yet. When the
+     * buffer stays full the notification is written directly, and write errors reach the caller.
+     */
+    public Notification save(Notification notification) {
+        if (notification.getId() == null) {
+            notification.setId(UuidV7.generate());
+        }
+        if (notification.getCreatedOn() == null) {
+            notification.setCreatedOn(LocalDateTime.now());
+        }
+
+        if (!closed) {
+            int size = buffer(notification);
+            if (size == 0) {
+                flush();
+                size = buffer(notification);
+            }
+            if (size > 0) {
+                if (size >= batchSize && flushScheduled.compareAndSet(false, true)) {
+                    flusher.execute(() -> {
+                        flushScheduled.set(false);
+                        flush();
+                    });
+                }
+                return notification;
+            }
+        }
+
+        writeDirectly(notification);
+        return notification;
+    }
+
+    /**
+     * Applies a change to a notification saved earlier: replaces its buffered state if it has
+     * not been written yet, and runs {@code update} against the stored row otherwise. Holding
+     * the flush lock keeps the update from overtaking an insert that is still in flight.
+     * Returns the number of rows changed, 1 for a buffered notification.
+     */
+    public int update(Notification notification, IntSupplier update) {
+        flushLock.lock();
+        try {
+            synchronized (pending) {
+                if (pending.containsKey(notification.getId())) {
+                    pending.put(notification.getId(), notification);
+                    return 1;
+                }
+            }
+            return update.getAsInt();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${notification.write-behind.flush-interval-ms:200}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            if (backoffMillis == 0 || System.nanoTime() - retryAtNanos >= 0) {
+                drain();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public int pending() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    public int deadLetters() {
+        synchronized (pending) {
+            return deadLetters.size();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("notification.write-behind.pending", this, NotificationWriteBehind::pending)
+                .description("Saved notifications not yet written to the database")
+                .register(registry);
+        Gauge.builder("notification.write-behind.dead-letters", this, NotificationWriteBehind::deadLetters)
+                .description("Saved notifications the database rejected, held until they are saved again")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        closed = true;
+        flushLock.lock();
+        try {
+            drain();
+        } finally {
+            flushLock.unlock();
+        }
+
+        int unwritten = pending() + deadLetters();
+        if (unwritten > 0) {
+            log.error("Shut down with %d notifications that could not be written.".formatted(unwritten));
+        }
+    }
+
+    /**
+     * Adds the notification to the buffer, or replaces its earlier state there, and returns the
+     * buffer size; returns 0 without buffering when the buffer is full.
+     */
+    private int buffer(Notification notification) {
+        synchronized (pending) {
+            if (pending.size() >= maxPending && !pending.containsKey(notification.getId())) {
+                return 0;
+            }
+            deadLetters.remove(notification.getId());
+            pending.put(notification.getId(), notification);
+            return pending.size();
+        }
+    }
+
+    private void drain() {
+        // Rows that fail are re-queued behind everything buffered so far, so counting the rows
+        // present at the start writes each of them at most once.
+        int remaining = pending();
+        boolean failed = false;
+        List<Notification> batch;
+        while (remaining > 0 && !(batch = nextBatch(Math.min(batchSize, remaining))).isEmpty()) {
+            remaining -= batch.size();
+            failed |= !write(batch);
+        }
+
+        backoffMillis = !failed ? 0 : backoffMillis == 0 ? retryBackoffMillis : Math.min(backoffMillis * 2, maxRetryBackoffMillis);
+        retryAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoffMillis);
+    }
+
+    private List<Notification> nextBatch(int size) {
+        synchronized (pending) {
+            List<Notification> batch = new ArrayList<>(Math.min(size, pending.size()));
+            Iterator<Notification> notifications = pending.values().iterator();
+            while (notifications.hasNext() && batch.size() < size) {
+                batch.add(notifications.next());
+                notifications.remove();
+            }
+            return batch;
+        }
+    }
+
+    /**
+     * Writes the batch, falling back to one row at a time when it fails. Returns whether every
+     * row was either written or rejected for good.
+     */
+    private boolean write(List<Notification> batch) {
+        try {
+            notificationMetrics.observeSave(() -> {
+                bodyStore.storeAll(batch);
+                return notificationRepository.saveAll(batch);
+            });
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Could not write %d notifications as a batch due to %s, writing them one by one."
+                    .formatted(batch.size(), e.getMessage()));
+            boolean written = true;
+            for (Notification notification : batch) {
+                written &= writeOne(notification);
+            }
+            return written;
+        }
+    }
+
+    private boolean writeOne(Notification notification) {
+        try {
+            bodyStore.store(notification);
+            notificationRepository.save(notification);
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            log.error("Notification %s cannot be stored, holding it as a dead letter: %s"
+                    .formatted(notification.getId(), e.getMessage()));
+            synchronized (pending) {
+                if (!pending.containsKey(notification.getId())) {
+                    deadLetters.put(notification.getId(), notification);
+                }
+            }
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Could not write notification %s due to %s, retrying on a later flush."
+                    .formatted(notification.getId(), e.getMessage()));
+            // Keeps the newest state if the notification was saved again in the meantime.
+            synchronized (pending) {
+                pending.putIfAbsent(notification.getId(), notification);
+            }
+            return false;
+        }
+    }
+
+    private void writeDirectly(Notification notification) {
+        flushLock.lock();
+        try {
+            notificationMetrics.observeSave(() -> {
+                bodyStore.store(notification);
+                return notificationRepository.save(notification);
+            });
+            synchronized (pending) {
+                deadLetters.remove(notification.getId());
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+}
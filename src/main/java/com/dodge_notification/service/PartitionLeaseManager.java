@@ -0,0 +1,307 @@
+package com.dodge_notification.service;
+
+import com.dodge_notification.dto.PartitionsChangedEvent;
+import com.dodge_notification.model.PartitionLease;
+import com.dodge_notification.model.ServiceInstance;
+import com.dodge_notification.repository.NotificationRepository;
+import com.dodge_notification.repository.PartitionLeaseRepository;
+import com.dodge_notification.repository.ServiceInstanceRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Shares the partitions of the notifications table between the running instances, so retries,
+ * scheduled sends, archiving and purging are each done by exactly one of them. Every heartbeat
+ * renews this instance's registration and leases, then moves it towards its fair share: the
+ * live instances, sorted by id, each get {@code PARTITIONS / n} partitions and the first
+ * {@code PARTITIONS % n} one more. Instances over their share release partitions, instances
+ * under it claim free or expired ones, so joins and departures settle within two heartbeats.
+ * <p>
+ * Work on a partition stops locally once the last successful heartbeat's lease runs out,
+ * which is the moment another instance may claim it. Rows are still claimed with conditional
+ * updates and {@code SKIP LOCKED}, so a late handover can delay work but not duplicate it.
+ * Heartbeats run on their own thread, so a long archive run or purge on the shared scheduler
+ * cannot hold them up until the leases lapse.
+ * <p>
+ * Only the notifications table is partitioned. State kept in memory stays per instance:
+ * idempotency keys in {@link NotificationDeduplicator} only catch duplicates that reach the
+ * same instance, the global limit in {@link SendRateLimiter} applies per instance, cached
+ * preferences in {@link PreferenceService} can be stale until they expire, and
+ * {@link StatusEventStream} subscribers only hear about status changes made on the instance
+ * they are connected to. Route a client's requests to one instance, with sticky sessions for
+ * example, where that matters.
+ */
+@Slf4j
+@Component
+public class PartitionLeaseManager implements MeterBinder, DisposableBean {
+
+    private static final Set<Integer> ALL_PARTITIONS = IntStream.range(0, PartitionLease.PARTITIONS)
+            .boxed()
+            .collect(Collectors.toUnmodifiableSet());
+
+    private final PartitionLeaseRepository leaseRepository;
+    private final ServiceInstanceRepository instanceRepository;
+    private final NotificationRepository notificationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Clock clock;
+    private final String instanceId;
+    private final boolean enabled;
+    private final Duration leaseTtl;
+    private final long heartbeatMillis;
+    private final int backfillChunkSize;
+    private volatile Set<Integer> owned;
+    private volatile LocalDateTime ownedUntil;
+    private ScheduledExecutorService heartbeats;
+    private boolean partitionsCreated;
+    private boolean closed;
+    private volatile boolean backfilled;
+
+    @Autowired
+    public PartitionLeaseManager(PartitionLeaseRepository leaseRepository,
+                                 ServiceInstanceRepository instanceRepository,
+                                 NotificationRepository notificationRepository,
+                                 TransactionTemplate transactionTemplate,
+                                 ApplicationEventPublisher eventPublisher,
+                                 @Value("${notification.partitions.enabled:true}") boolean enabled,
+                                 @Value("${notification.partitions.instance-id:}") String instanceId,
+                                 @Value("${notification.partitions.lease-ttl:15s}") Duration leaseTtl,
+                                 @Value("${notification.partitions.heartbeat-ms:5000}") long heartbeatMillis,
+                                 @Value("${notification.partitions.backfill-chunk-size:500}") int backfillChunkSize) {
+        this(leaseRepository, instanceRepository, notificationRepository, transactionTemplate, eventPublisher,
+                Clock.systemDefaultZone(), enabled, instanceId.isBlank() ? UUID.randomUUID().toString() : instanceId,
+                leaseTtl, heartbeatMillis, backfillChunkSize);
+    }
+
+    PartitionLeaseManager(PartitionLeaseRepository leaseRepository, ServiceInstanceRepository instanceRepository,
+                          NotificationRepository notificationRepository, TransactionTemplate transactionTemplate,
+                          ApplicationEventPublisher eventPublisher, Clock clock, boolean enabled, String instanceId,
+                          Duration leaseTtl, long heartbeatMillis, int backfillChunkSize) {
+        this.leaseRepository = leaseRepository;
+        this.instanceRepository = instanceRepository;
+        this.notificationRepository = notificationRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.clock = clock;
+        this.enabled = enabled;
+        this.instanceId = instanceId;
+        this.leaseTtl = leaseTtl;
+        this.heartbeatMillis = heartbeatMillis;
+        this.backfillChunkSize = backfillChunkSize;
+        // A single instance without coordination simply owns everything.
+        this.owned = enabled ? Set.of() : ALL_PARTITIONS;
+        this.ownedUntil = enabled ? LocalDateTime.MIN : LocalDateTime.MAX;
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    /**
+     * The partitions this instance may work on right now; empty once its leases have run out
+     * without being renewed.
+     */
+    public Set<Integer> ownedPartitions() {
+        return LocalDateTime.now(clock).isBefore(ownedUntil) ? owned : Set.of();
+    }
+
+    public boolean owns(int partition) {
+        return ownedPartitions().contains(partition);
+    }
+
+    /**
+     * Starts heartbeating on a dedicated thread once the application is up.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void startHeartbeats() {
+        if (!enabled || closed || heartbeats != null) {
+            return;
+        }
+        heartbeats = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("partition-heartbeat-"));
+        heartbeats.scheduleWithFixedDelay(() -> {
+            // An exception escaping here would cancel every later heartbeat.
+            try {
+                heartbeat();
+            } catch (RuntimeException e) {
+                log.error("Partition heartbeat of instance %s failed unexpectedly.".formatted(instanceId), e);
+            }
+        }, 0, heartbeatMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void heartbeat() {
+        if (!enabled || closed) {
+            return;
+        }
+        try {
+            createPartitions();
+
+            LocalDateTime now = LocalDateTime.now(clock);
+            LocalDateTime expiresAt = now.plus(leaseTtl);
+            List<Integer> held = transactionTemplate.execute(status -> rebalance(now, expiresAt));
+            update(new TreeSet<>(held), expiresAt);
+        } catch (DataAccessException e) {
+            log.warn("Partition heartbeat of instance %s failed: %s".formatted(instanceId, e.getMessage()));
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("notification.partitions.owned", this, manager -> manager.ownedPartitions().size())
+                .description("Partitions of the notifications table this instance works on")
+                .register(registry);
+    }
+
+    /**
+     * Hands this instance's partitions back right away instead of letting them expire, so the
+     * others pick them up on their next heartbeat.
+     */
+    @Override
+    public synchronized void destroy() {
+        if (!enabled) {
+            return;
+        }
+        closed = true;
+        if (heartbeats != null) {
+            heartbeats.shutdownNow();
+        }
+        update(Set.of(), LocalDateTime.MIN);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                leaseRepository.releaseAll(instanceId);
+                instanceRepository.deleteById(instanceId);
+            });
+        } catch (DataAccessException e) {
+            log.warn("Could not release the partitions of instance %s, they expire on their own: %s"
+                    .formatted(instanceId, e.getMessage()));
+        }
+    }
+
+    private List<Integer> rebalance(LocalDateTime now, LocalDateTime expiresAt) {
+        if (instanceRepository.renew(instanceId, expiresAt) == 0) {
+            instanceRepository.save(ServiceInstance.builder().id(instanceId).expiresAt(expiresAt).build());
+        }
+        instanceRepository.deleteExpiredBefore(now.minus(leaseTtl));
+        leaseRepository.renew(instanceId, expiresAt);
+
+        List<String> live = instanceRepository.findLiveIds(now);
+        int index = Math.max(0, live.indexOf(instanceId));
+        int instances = Math.max(1, live.size());
+        int share = PartitionLease.PARTITIONS / instances + (index < PartitionLease.PARTITIONS % instances ? 1 : 0);
+
+        List<Integer> held = new ArrayList<>(leaseRepository.findOwned(instanceId, now));
+        if (held.size() > share) {
+            List<Integer> excess = held.subList(share, held.size());
+            leaseRepository.release(instanceId, List.copyOf(excess));
+            held = new ArrayList<>(held.subList(0, share));
+        } else if (held.size() < share) {
+            for (Integer partition : leaseRepository.findClaimable(now)) {
+                if (held.size() == share) {
+                    break;
+                }
+                if (leaseRepository.claim(partition, instanceId, expiresAt, now) == 1) {
+                    held.add(partition);
+                }
+            }
+        }
+        return held;
+    }
+
+    private void update(Set<Integer> held, LocalDateTime expiresAt) {
+        Set<Integer> previous = owned;
+        owned = Set.copyOf(held);
+        ownedUntil = expiresAt;
+
+        if (!held.equals(previous)) {
+            Set<Integer> acquired = new HashSet<>(held);
+            acquired.removeAll(previous);
+            Set<Integer> released = new HashSet<>(previous);
+            released.removeAll(held);
+            log.info("Instance %s now owns %d partitions (+%d, -%d).".formatted(instanceId, held.size(),
+                    acquired.size(), released.size()));
+            eventPublisher.publishEvent(new PartitionsChangedEvent(instanceId, Set.copyOf(acquired), Set.copyOf(released)));
+        }
+    }
+
+    private void createPartitions() {
+        if (partitionsCreated) {
+            return;
+        }
+        Set<Integer> existing = new HashSet<>(leaseRepository.findAllIds());
+        List<PartitionLease> missing = ALL_PARTITIONS.stream()
+                .filter(partition -> !existing.contains(partition))
+                .map(partition -> PartitionLease.builder().id(partition).build())
+                .toList();
+        if (!missing.isEmpty()) {
+            // Instances starting together race here; the loser fails and retries on its next heartbeat.
+            transactionTemplate.executeWithoutResult(status -> leaseRepository.saveAll(missing));
+        }
+        partitionsCreated = true;
+    }
+
+    /**
+     * Rows written before partitioning existed have no partition and would be skipped by every
+     * instance, so they get theirs here, one chunk of users per transaction. Runs on the shared
+     * scheduler rather than with the heartbeat, since on a large table it can outlast a lease;
+     * after a failure it picks up where it stopped on the next run.
+     */
+    @Scheduled(fixedDelayString = "${notification.partitions.heartbeat-ms:5000}")
+    public void backfillPartitionIds() {
+        if (backfilled) {
+            return;
+        }
+        try {
+            backfillChunks();
+            backfilled = true;
+        } catch (DataAccessException e) {
+            log.warn("Partition backfill failed, retrying on its next run: %s".formatted(e.getMessage()));
+        }
+    }
+
+    private void backfillChunks() {
+        List<UUID> users;
+        do {
+            users = transactionTemplate.execute(status -> {
+                List<UUID> chunk = notificationRepository.findUsersWithoutPartition(Limit.of(backfillChunkSize));
+                Map<Integer, List<UUID>> byPartition = chunk.stream()
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.groupingBy(PartitionLease::partitionOf));
+                byPartition.forEach((partition, userIds) -> notificationRepository.assignPartition(userIds, partition));
+                if (chunk.contains(null)) {
+                    notificationRepository.assignPartitionToUnowned();
+                }
+                return chunk;
+            });
+        } while (users.size() == backfillChunkSize);
+    }
+}
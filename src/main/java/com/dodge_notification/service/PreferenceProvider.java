@@ -0,0 +1,15 @@
+package com.dodge_notification.service;
+
+import com.dodge_notification.model.NotificationPreference;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Source of users' notification preferences, such as a preferences table or a remote
+ * user service. Lookups go through {@link PreferenceService}, which caches the results.
+ */
+public interface PreferenceProvider {
+
+    Optional<NotificationPreference> findByUserId(UUID userId);
+}
@@ -0,0 +1,97 @@
+package com.dodge_notification.service;
+
+import com.dodge_notification.dto.PreferenceCacheStats;
+import com.dodge_notification.model.NotificationPreference;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Bounded, expiring cache in front of the {@link PreferenceProvider}. Users without a
+ * preference are cached too, with a shorter TTL, so unknown ids do not hit the provider
+ * on every send.
+ * <p>
+ * Each instance has its own cache, so a preference changed through another instance can be
+ * served stale here until its entry expires.
+ */
+@Service
+public class PreferenceService implements MeterBinder {
+
+    private final PreferenceProvider preferenceProvider;
+    private final Cache<UUID, Optional<NotificationPreference>> cache;
+
+    @Autowired
+    public PreferenceService(PreferenceProvider preferenceProvider,
+                             @Value("${notification.preferences.cache.maximum-size:100000}") long maximumSize,
+                             @Value("${notification.preferences.cache.ttl:10m}") Duration ttl,
+                             @Value("${notification.preferences.cache.negative-ttl:1m}") Duration negativeTtl) {
+        this.preferenceProvider = preferenceProvider;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new PreferenceExpiry(ttl, negativeTtl))
+                .recordStats()
+                .build();
+    }
+
+    public Optional<NotificationPreference> getPreference(UUID userId) {
+        return cache.get(userId, preferenceProvider::findByUserId);
+    }
+
+    public void invalidate(UUID userId) {
+        cache.invalidate(userId);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "notification.preferences");
+    }
+
+    public PreferenceCacheStats getStats() {
+        CacheStats stats = cache.stats();
+
+        return PreferenceCacheStats.builder()
+                .size(cache.estimatedSize())
+                .hitCount(stats.hitCount())
+                .missCount(stats.missCount())
+                .hitRate(stats.hitRate())
+                .evictionCount(stats.evictionCount())
+                .averageLoadPenaltyMillis(stats.averageLoadPenalty() / 1_000_000.0)
+                .build();
+    }
+
+    private record PreferenceExpiry(Duration ttl, Duration negativeTtl)
+            implements Expiry<UUID, Optional<NotificationPreference>> {
+
+        @Override
+        public long expireAfterCreate(UUID userId, Optional<NotificationPreference> preference, long currentTime) {
+            return (preference.isPresent() ? ttl : negativeTtl).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(UUID userId, Optional<NotificationPreference> preference, long currentTime,
+                                      long currentDuration) {
+            return expireAfterCreate(userId, preference, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(UUID userId, Optional<NotificationPreference> preference, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.dodge_notification.service;
+
+import com.dodge_notification.dto.DtoMapper;
+import com.dodge_notification.dto.NotificationResponse;
+import com.dodge_notification.model.Notification;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * The most recent notifications of recently polled users, newest first, so inbox polls do not
+ * reach the database. Saves are written through to users already cached and clearing a user
+ * drops the entry. Each entry holds one row more than {@link #getDepth()}, which tells a full
+ * first page whether another one follows. The TTL bounds how long writes made by other
+ * instances stay invisible.
+ */
+@Component
+public class RecentNotificationCache {
+
+    private static final Comparator<NotificationResponse> NEWEST_FIRST = Comparator
+            .comparing(NotificationResponse::getCreatedOn)
+            .thenComparing(NotificationResponse::getId)
+            .reversed();
+
+    private final Cache<UUID, List<NotificationResponse>> recent;
+    private final int depth;
+
+    @Autowired
+    public RecentNotificationCache(@Value("${notification.status.user-cache.maximum-size:10000}") long maximumSize,
+                                   @Value("${notification.status.user-cache.depth:50}") int depth,
+                                   @Value("${notification.status.user-cache.ttl:5m}") Duration ttl) {
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+        this.depth = depth;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * The user's newest {@code depth + 1} notifications, loaded with the given query on a miss.
+     */
+    public List<NotificationResponse> getRecent(UUID userId, Function<Integer, List<NotificationResponse>> loader) {
+        return recent.get(userId, key -> List.copyOf(loader.apply(depth + 1)));
+    }
+
+    public void update(Notification notification) {
+        if (notification.getId() == null || notification.getCreatedOn() == null || notification.isDeleted()) {
+            return;
+        }
+
+        NotificationResponse summary = DtoMapper.fromNotification(notification);
+
+        recent.asMap().computeIfPresent(notification.getUserId(), (userId, cached) -> {
+            List<NotificationResponse> updated = new ArrayList<>(cached.size() + 1);
+            cached.stream().filter(row -> !row.getId().equals(summary.getId())).forEach(updated::add);
+            updated.add(summary);
+            updated.sort(NEWEST_FIRST);
+            return List.copyOf(updated.subList(0, Math.min(updated.size(), depth + 1)));
+        });
+    }
+
+    /**
+     * Drops the user's entry, after the surrounding transaction commits when there is one, so
+     * a poll in between cannot cache rows that are about to disappear.
+     */
+    public void invalidate(UUID userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recent.invalidate(userId);
+                }
+            });
+            return;
+        }
+        recent.invalidate(userId);
+    }
+}
@@ -0,0 +1,50 @@
+package com.dodge_notification.service;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential backoff with jitter for failed deliveries. The jitter spreads retries of
+ * notifications that failed together, so a provider outage does not end in a retry storm.
+ */
+@Getter
+@Component
+public class RetryPolicy {
+
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration lease;
+
+    @Autowired
+    public RetryPolicy(@Value("${notification.retry.max-attempts:5}") int maxAttempts,
+                       @Value("${notification.retry.initial-backoff:30s}") Duration initialBackoff,
+                       @Value("${notification.retry.max-backoff:1h}") Duration maxBackoff,
+                       @Value("${notification.retry.lease:5m}") Duration lease) {
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.lease = lease;
+    }
+
+    public boolean isExhausted(int attempts) {
+        return attempts >= maxAttempts;
+    }
+
+    /**
+     * Delay before the attempt following {@code attempts} failed ones: between half and
+     * all of {@code initialBackoff * 2^(attempts - 1)}, capped at {@code maxBackoff}.
+     */
+    public Duration backoff(int attempts) {
+        int exponent = Math.min(Math.max(attempts - 1, 0), 30);
+        long backoffMillis = Math.min(maxBackoff.toMillis(), initialBackoff.toMillis() << exponent);
+        long half = backoffMillis / 2;
+
+        return Duration.ofMillis(half + ThreadLocalRandom.current().nextLong(half + 1));
+    }
+}
@@ -0,0 +1,188 @@
+package com.dodge_notification.service;
+
+import com.dodge_notification.channel.ChannelDispatcher;
+import com.dodge_notification.dto.NotificationStatusEvent;
+import com.dodge_notification.dto.PartitionsChangedEvent;
+import com.dodge_notification.dto.ScheduledNotification;
+import com.dodge_notification.model.Notification;
+import com.dodge_notification.model.NotificationStatus;
+import com.dodge_notification.repository.NotificationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Fires {@code SCHEDULED} notifications at their {@code sendAt}. Rather than polling the table
+ * every tick, it loads the ids due within the next window onto a {@link TimerWheel} once per
+ * refresh, and notifications scheduled inside an already loaded window join the wheel
+ * directly from their status event. Due ids are claimed in batches the same way the retry
+ * scheduler claims rows, moved to {@code PENDING} with a lease, and handed to their channel's
+ * workers, so a crash after the claim is recovered by the retry scheduler.
+ * <p>
+ * Windows are loaded for the partitions this instance owns, and partitions it acquires are
+ * loaded when they arrive. A notification joins the wheel of whichever instance saved it;
+ * if that instance dies first, the owner picks the notification up once it is overdue.
+ */
+@Slf4j
+@Component
+public class ScheduledNotificationDispatcher {
+
+    private static final LocalDateTime NOTHING_LOADED = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final NotificationRepository notificationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ChannelDispatcher channelDispatcher;
+    private final EmailService emailService;
+    private final RetryPolicy retryPolicy;
+    private final PartitionLeaseManager partitionLeaseManager;
+    private final Duration window;
+    private final int maxLoaded;
+    private final int batchSize;
+    private final TimerWheel<UUID> wheel;
+    private final Set<UUID> onWheel = new HashSet<>();
+    private volatile LocalDateTime loadedUntil = NOTHING_LOADED;
+
+    @Autowired
+    public ScheduledNotificationDispatcher(NotificationRepository notificationRepository,
+                                           TransactionTemplate transactionTemplate,
+                                           ChannelDispatcher channelDispatcher,
+                                           EmailService emailService,
+                                           RetryPolicy retryPolicy,
+                                           PartitionLeaseManager partitionLeaseManager,
+                                           @Value("${notification.schedule.tick-ms:100}") long tickMillis,
+                                           @Value("${notification.schedule.wheel-size:64}") int wheelSize,
+                                           @Value("${notification.schedule.levels:4}") int levels,
+                                           @Value("${notification.schedule.window:5m}") Duration window,
+                                           @Value("${notification.schedule.max-loaded:100000}") int maxLoaded,
+                                           @Value("${notification.schedule.batch-size:500}") int batchSize) {
+        this.notificationRepository = notificationRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.channelDispatcher = channelDispatcher;
+        this.emailService = emailService;
+        this.retryPolicy = retryPolicy;
+        this.partitionLeaseManager = partitionLeaseManager;
+        this.window = window;
+        this.maxLoaded = maxLoaded;
+        this.batchSize = batchSize;
+        this.wheel = new TimerWheel<>(tickMillis, wheelSize, levels, System.currentTimeMillis());
+
+        if (window.toMillis() > wheel.getSpanMillis()) {
+            throw new IllegalArgumentException("The schedule window %s is longer than the timer wheel span of %d ms."
+                    .formatted(window, wheel.getSpanMillis()));
+        }
+    }
+
+    /**
+     * Extends the loaded window up to {@code now + window}. The new horizon is published before
+     * querying: notifications saved after that join the wheel through {@link #onStatusChange},
+     * and everything committed before it is found by the query.
+     */
+    @Scheduled(fixedDelayString = "${notification.schedule.window-refresh-ms:10000}")
+    public void loadWindow() {
+        LocalDateTime from = loadedUntil;
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plus(window);
+        if (!until.isAfter(from)) {
+            return;
+        }
+
+        loadedUntil = until;
+        Set<Integer> partitions = partitionLeaseManager.ownedPartitions();
+        if (partitions.isEmpty()) {
+            return;
+        }
+
+        List<ScheduledNotification> upcoming = load(from, until, partitions);
+        if (upcoming.size() == maxLoaded) {
+            // The rest of the window is picked up by the next refresh; ids loaded twice are skipped.
+            loadedUntil = upcoming.get(upcoming.size() - 1).getSendAt();
+        }
+        if (from.isAfter(NOTHING_LOADED)) {
+            // Still SCHEDULED after their time: left on the wheel of an instance that went away.
+            load(NOTHING_LOADED, from.isBefore(now) ? from : now, partitions);
+        }
+
+        log.debug("Loaded %d scheduled notifications due before %s.".formatted(upcoming.size(), loadedUntil));
+    }
+
+    @EventListener
+    public void onStatusChange(NotificationStatusEvent event) {
+        if (event.getStatus() == NotificationStatus.SCHEDULED && event.getSendAt() != null
+                && event.getSendAt().isBefore(loadedUntil)) {
+            add(event.getNotificationId(), event.getSendAt());
+        }
+    }
+
+    /**
+     * Loads partitions taken over from another instance up to the current horizon; later
+     * refreshes include them like the rest.
+     */
+    @EventListener
+    public void onPartitionsChanged(PartitionsChangedEvent event) {
+        if (!event.getAcquired().isEmpty()) {
+            load(NOTHING_LOADED, loadedUntil, event.getAcquired());
+        }
+    }
+
+    @Scheduled(fixedRateString = "${notification.schedule.tick-ms:100}")
+    public void fireDue() {
+        List<UUID> due;
+        synchronized (this) {
+            due = wheel.advance(System.currentTimeMillis());
+            due.forEach(onWheel::remove);
+        }
+
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<Notification> claimed = claim(due.subList(from, Math.min(from + batchSize, due.size())));
+            for (Notification notification : claimed) {
+                if (!channelDispatcher.offer(notification.getType(), () -> emailService.redeliver(notification))) {
+                    log.debug("Delivery queue is full, %s stays claimed until its lease expires.".formatted(notification.getId()));
+                }
+            }
+        }
+    }
+
+    synchronized int pending() {
+        return wheel.size();
+    }
+
+    List<Notification> claim(List<UUID> ids) {
+        LocalDateTime leaseUntil = LocalDateTime.now().plus(retryPolicy.getLease());
+
+        return transactionTemplate.execute(status -> {
+            List<Notification> claimed = notificationRepository.findByIdsForUpdate(ids, NotificationStatus.SCHEDULED);
+            claimed.forEach(notification -> {
+                notification.setStatus(NotificationStatus.PENDING);
+                notification.setNextAttemptAt(leaseUntil);
+            });
+            return claimed;
+        });
+    }
+
+    private List<ScheduledNotification> load(LocalDateTime from, LocalDateTime until, Set<Integer> partitions) {
+        List<ScheduledNotification> found = notificationRepository.findScheduled(NotificationStatus.SCHEDULED, from, until,
+                partitions, Limit.of(maxLoaded));
+        found.forEach(notification -> add(notification.getId(), notification.getSendAt()));
+        return found;
+    }
+
+    private synchronized void add(UUID id, LocalDateTime sendAt) {
+        long dueMillis = sendAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        if (onWheel.add(id) && !wheel.schedule(id, dueMillis)) {
+            onWheel.remove(id);
+        }
+    }
+}
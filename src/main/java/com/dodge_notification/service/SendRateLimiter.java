@@ -0,0 +1,86 @@
+package com.dodge_notification.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps sends within the mail provider's limits: one {@link TokenBucket} per user, sharded
+ * across a {@link ConcurrentHashMap}, and one global bucket for the provider-wide cap. A send
+ * that would exceed either limit is not attempted; the caller gets the time to wait and
+ * defers the notification instead.
+ * <p>
+ * Buckets are keyed by user id rather than contact address, because several users can share
+ * one address (the default preference provider hands out the same address to everyone).
+ * A per-user permit is taken inside {@link ConcurrentHashMap#compute}, and idle buckets are
+ * evicted with the same per-key lock, so a bucket can't be dropped between being looked up
+ * and being drawn from.
+ * <p>
+ * Buckets live in this instance's memory, so with several instances both limits apply per
+ * instance and the provider sees up to their sum.
+ */
+@Component
+public class SendRateLimiter {
+
+    private final boolean enabled;
+    private final double recipientPermitsPerSecond;
+    private final int recipientBurst;
+    private final TokenBucket global;
+    private final ConcurrentHashMap<UUID, TokenBucket> users = new ConcurrentHashMap<>();
+
+    @Autowired
+    public SendRateLimiter(@Value("${notification.rate-limit.enabled:true}") boolean enabled,
+                           @Value("${notification.rate-limit.global.permits-per-second:50}") double globalPermitsPerSecond,
+                           @Value("${notification.rate-limit.global.burst:100}") int globalBurst,
+                           @Value("${notification.rate-limit.recipient.permits-per-second:1}") double recipientPermitsPerSecond,
+                           @Value("${notification.rate-limit.recipient.burst:20}") int recipientBurst) {
+        this.enabled = enabled;
+        this.recipientPermitsPerSecond = recipientPermitsPerSecond;
+        this.recipientBurst = recipientBurst;
+        this.global = new TokenBucket(globalPermitsPerSecond, globalBurst, System::nanoTime);
+    }
+
+    /**
+     * @return {@link Duration#ZERO} when the send may go ahead, otherwise how long to defer it
+     */
+    public Duration tryAcquire(UUID userId) {
+        if (!enabled) {
+            return Duration.ZERO;
+        }
+
+        long[] userWait = new long[1];
+        TokenBucket bucket = users.compute(userId, (key, current) -> {
+            TokenBucket acquired = current != null ? current
+                    : new TokenBucket(recipientPermitsPerSecond, recipientBurst, System::nanoTime);
+            userWait[0] = acquired.tryAcquire();
+            return acquired;
+        });
+        if (userWait[0] > 0) {
+            return Duration.ofNanos(userWait[0]);
+        }
+
+        long wait = global.tryAcquire();
+        if (wait > 0) {
+            bucket.refund();
+            return Duration.ofNanos(wait);
+        }
+
+        return Duration.ZERO;
+    }
+
+    @Scheduled(fixedDelayString = "${notification.rate-limit.cleanup-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        for (UUID userId : users.keySet()) {
+            users.computeIfPresent(userId, (key, bucket) -> bucket.isIdle() ? null : bucket);
+        }
+    }
+
+    int trackedUsers() {
+        return users.size();
+    }
+}
@@ -0,0 +1,200 @@
+package com.dodge_notification.service;
+
+import com.dodge_notification.dto.NotificationStatusEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pushes {@link NotificationStatusEvent}s to server-sent event subscribers, by user or by
+ * notification. Publishing only appends to each matching subscriber's bounded buffer; a small
+ * pool writes the buffers out. A subscriber whose buffer fills up is too slow to keep up and
+ * is disconnected, so it can reconnect and catch up from the status endpoints instead of
+ * holding memory.
+ * <p>
+ * Events are published in-process, so subscribers only see status changes made by the
+ * instance they are connected to; retries and scheduled sends of partitions owned elsewhere
+ * reach them through the status endpoints only.
+ */
+@Slf4j
+@Service
+public class StatusEventStream implements MeterBinder, DisposableBean {
+
+    private final Map<UUID, Set<Subscriber>> byUser = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<Subscriber>> byNotification = new ConcurrentHashMap<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final LongAdder dropped = new LongAdder();
+    private final Executor dispatcher;
+    private final int bufferSize;
+    private final long timeoutMillis;
+
+    @Autowired
+    public StatusEventStream(@Value("${notification.events.buffer-size:64}") int bufferSize,
+                             @Value("${notification.events.dispatch-threads:4}") int dispatchThreads,
+                             @Value("${notification.events.emitter-timeout:30m}") Duration emitterTimeout) {
+        this(bufferSize, Executors.newFixedThreadPool(dispatchThreads, new CustomizableThreadFactory("status-events-")),
+                emitterTimeout);
+    }
+
+    StatusEventStream(int bufferSize, Executor dispatcher, Duration emitterTimeout) {
+        this.bufferSize = bufferSize;
+        this.dispatcher = dispatcher;
+        this.timeoutMillis = emitterTimeout.toMillis();
+    }
+
+    public SseEmitter subscribeToUser(UUID userId) {
+        return subscribe(byUser, userId);
+    }
+
+    public SseEmitter subscribeToNotification(UUID notificationId) {
+        return subscribe(byNotification, notificationId);
+    }
+
+    @EventListener
+    public void onStatusChange(NotificationStatusEvent event) {
+        offer(byUser.get(event.getUserId()), event);
+        offer(byNotification.get(event.getNotificationId()), event);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("notification.events.subscribers", subscribers, AtomicInteger::get)
+                .description("Open status event streams")
+                .register(registry);
+        FunctionCounter.builder("notification.events.dropped", dropped, LongAdder::sum)
+                .description("Status event streams disconnected for falling behind")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        byUser.values().forEach(set -> set.forEach(Subscriber::close));
+        byNotification.values().forEach(set -> set.forEach(Subscriber::close));
+        if (dispatcher instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    private SseEmitter subscribe(Map<UUID, Set<Subscriber>> index, UUID key) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, index, key);
+
+        index.compute(key, (k, set) -> {
+            Set<Subscriber> subscribed = set != null ? set : ConcurrentHashMap.newKeySet();
+            subscribed.add(subscriber);
+            return subscribed;
+        });
+        subscribers.incrementAndGet();
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        return emitter;
+    }
+
+    private static void offer(Set<Subscriber> matching, NotificationStatusEvent event) {
+        if (matching != null) {
+            matching.forEach(subscriber -> subscriber.offer(event));
+        }
+    }
+
+    private final class Subscriber implements Runnable {
+
+        private final SseEmitter emitter;
+        private final Map<UUID, Set<Subscriber>> index;
+        private final UUID key;
+        private final BlockingQueue<NotificationStatusEvent> buffer;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter, Map<UUID, Set<Subscriber>> index, UUID key) {
+            this.emitter = emitter;
+            this.index = index;
+            this.key = key;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        void offer(NotificationStatusEvent event) {
+            if (closed.get()) {
+                return;
+            }
+            if (!buffer.offer(event)) {
+                dropped.increment();
+                log.debug("Disconnecting status event subscriber for %s, %d events behind.".formatted(key, bufferSize));
+                close();
+            }
+            schedule();
+        }
+
+        @Override
+        public void run() {
+            try {
+                NotificationStatusEvent event;
+                while (!closed.get() && (event = buffer.poll()) != null) {
+                    emitter.send(SseEmitter.event().name("status").data(event));
+                }
+            } catch (IOException | IllegalStateException e) {
+                close();
+            } finally {
+                scheduled.set(false);
+                if (closed.get()) {
+                    buffer.clear();
+                    emitter.complete();
+                } else if (!buffer.isEmpty()) {
+                    schedule();
+                }
+            }
+        }
+
+        /**
+         * Completing the emitter can block behind a send in progress, so it is left to the
+         * writer; this only stops further events and unregisters.
+         */
+        void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            subscribers.decrementAndGet();
+            index.computeIfPresent(key, (k, set) -> {
+                set.remove(this);
+                return set.isEmpty() ? null : set;
+            });
+        }
+
+        private void schedule() {
+            if (!scheduled.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                dispatcher.execute(this);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+                close();
+            }
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.dodge_notification.service;
+
+import com.dodge_notification.dto.TemplateRequest;
+import com.dodge_notification.dto.TemplateResponse;
+import com.dodge_notification.exception.InvalidTemplateException;
+import com.dodge_notification.model.Notification;
+import com.dodge_notification.model.NotificationTemplate;
+import com.dodge_notification.repository.NotificationTemplateRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Server-side notification templates. A template is parsed once into a
+ * {@link CompiledTemplate} per subject and body and the plans are cached, so a templated
+ * request only carries its template id and variables. Templated notifications store the
+ * rendered subject but not the body, which is rendered again from the plan when sent.
+ * <p>
+ * Templates are versioned and each version is immutable. A notification records the version
+ * it was accepted with, so retries, digests and history render the same text even after the
+ * template has been registered again with different wording or variables.
+ * <p>
+ * Each instance caches which version is the latest, so after a template is registered through
+ * another instance, new notifications here keep using the previous version until that entry
+ * expires. Its TTL is kept short for this; compiled plans never change and can live longer.
+ */
+@Service
+public class TemplateService {
+
+    private final NotificationTemplateRepository templateRepository;
+    private final Cache<NotificationTemplate.Key, RenderPlan> plans;
+    private final Cache<String, Integer> latestVersions;
+
+    @Autowired
+    public TemplateService(NotificationTemplateRepository templateRepository,
+                           @Value("${notification.templates.cache.maximum-size:1000}") long maximumSize,
+                           @Value("${notification.templates.cache.ttl:10m}") Duration ttl,
+                           @Value("${notification.templates.cache.latest-version-ttl:30s}") Duration latestVersionTtl) {
+        this.templateRepository = templateRepository;
+        this.plans = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+        this.latestVersions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(latestVersionTtl)
+                .build();
+    }
+
+    /**
+     * Stores the template as its next version; earlier versions stay as they are.
+     */
+    public TemplateResponse register(String templateId, TemplateRequest request) {
+        if (request.getSubject() == null || request.getBody() == null) {
+            throw new InvalidTemplateException("Template %s needs both a subject and a body.".formatted(templateId));
+        }
+
+        RenderPlan plan;
+        try {
+            plan = new RenderPlan(CompiledTemplate.compile(request.getSubject()), CompiledTemplate.compile(request.getBody()));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidTemplateException(e.getMessage());
+        }
+
+        int version = templateRepository.findFirstByTemplateIdOrderByVersionDesc(templateId)
+                .map(NotificationTemplate::getVersion)
+                .orElse(0) + 1;
+        try {
+            templateRepository.save(NotificationTemplate.builder()
+                    .templateId(templateId)
+                    .version(version)
+                    .subject(request.getSubject())
+                    .body(request.getBody())
+                    .createdOn(LocalDateTime.now())
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            throw new InvalidTemplateException("Template %s was registered concurrently, please retry.".formatted(templateId));
+        }
+        plans.put(new NotificationTemplate.Key(templateId, version), plan);
+        latestVersions.put(templateId, version);
+
+        return TemplateResponse.builder()
+                .id(templateId)
+                .version(version)
+                .variables(plan.variableNames())
+                .build();
+    }
+
+    /**
+     * The version new notifications of this template are rendered with.
+     */
+    public int latestVersion(String templateId) {
+        Integer version = latestVersions.get(templateId, id -> templateRepository.findFirstByTemplateIdOrderByVersionDesc(id)
+                .map(NotificationTemplate::getVersion)
+                .orElse(null));
+
+        if (version == null) {
+            throw new IllegalArgumentException("No template found with id %s.".formatted(templateId));
+        }
+        return version;
+    }
+
+    /**
+     * Renders the subject and checks that every variable of the body is present, so a
+     * templated request fails before anything is stored.
+     */
+    public String renderSubject(String templateId, int version, Map<String, String> variables) {
+        RenderPlan plan = plan(templateId, version);
+
+        for (String name : plan.body().getVariableNames()) {
+            if (variables == null || variables.get(name) == null) {
+                throw new IllegalArgumentException("Missing template variable %s.".formatted(name));
+            }
+        }
+        return plan.subject().render(variables);
+    }
+
+    /**
+     * The notification as it should go out: itself when it carries its own body, otherwise
+     * a copy with the body rendered from the template version it was accepted with. State
+     * changes belong on the original.
+     */
+    public Notification withBody(Notification notification) {
+        if (notification.getTemplateId() == null) {
+            return notification;
+        }
+
+        // Rows from before templates were versioned render with the current version.
+        int version = notification.getTemplateVersion() != null
+                ? notification.getTemplateVersion()
+                : latestVersion(notification.getTemplateId());
+
+        return Notification.builder()
+                .id(notification.getId())
+                .userId(notification.getUserId())
+                .type(notification.getType())
+                .subject(notification.getSubject())
+                .body(plan(notification.getTemplateId(), version).body().render(notification.getVariables()))
+                .templateId(notification.getTemplateId())
+                .templateVersion(version)
+                .variables(notification.getVariables())
+                .build();
+    }
+
+    private RenderPlan plan(String templateId, int version) {
+        RenderPlan plan = plans.get(new NotificationTemplate.Key(templateId, version), key -> templateRepository.findById(key)
+                .map(template -> new RenderPlan(CompiledTemplate.compile(template.getSubject()),
+                        CompiledTemplate.compile(template.getBody())))
+                .orElse(null));
+
+        if (plan == null) {
+            throw new IllegalArgumentException("No template found with id %s and version %d.".formatted(templateId, version));
+        }
+        return plan;
+    }
+
+    private record RenderPlan(CompiledTemplate subject, CompiledTemplate body) {
+
+        Set<String> variableNames() {
+            Set<String> names = new HashSet<>(subject.getVariableNames());
+            names.addAll(body.getVariableNames());
+            return names;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.dodge_notification.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical hashed timer wheel. Level 0 has one slot per tick; every higher level has one
+ * slot per full rotation of the level below, and its slot is cascaded down when the wheel
+ * reaches it. Scheduling and firing are O(1) per item, no matter how many are pending, and
+ * an idle wheel costs nothing to advance. Not thread-safe on its own.
+ */
+public class TimerWheel<T> {
+
+    private final long tickMillis;
+    private final int bits;
+    private final int mask;
+    private final int levels;
+    private final List<Entry<T>>[][] slots;
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimerWheel(long tickMillis, int wheelSize, int levels, long startMillis) {
+        if (Integer.bitCount(wheelSize) != 1 || levels < 1 || (long) Integer.numberOfTrailingZeros(wheelSize) * levels > 62) {
+            throw new IllegalArgumentException("Wheel size must be a power of two and the wheel must fit 62 bits of ticks.");
+        }
+        this.tickMillis = tickMillis;
+        this.bits = Integer.numberOfTrailingZeros(wheelSize);
+        this.mask = wheelSize - 1;
+        this.levels = levels;
+        this.slots = new List[levels][wheelSize];
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * How far ahead of the current tick items can always be scheduled.
+     */
+    public long getSpanMillis() {
+        return tickMillis * ((long) mask << (bits * (levels - 1)));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Schedules the item to fire at {@code dueMillis}, or on the next tick when that is
+     * already past.
+     *
+     * @return false when the time is beyond {@link #getSpanMillis()} and the item was not added
+     */
+    public boolean schedule(T item, long dueMillis) {
+        long dueTick = Math.max(dueMillis / tickMillis, currentTick + 1);
+        if (!place(new Entry<>(item, dueTick))) {
+            return false;
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * Moves the wheel up to {@code nowMillis} and returns the items that came due, in order.
+     */
+    public List<T> advance(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        List<T> due = new ArrayList<>();
+
+        if (size == 0) {
+            currentTick = Math.max(currentTick, targetTick);
+            return due;
+        }
+
+        while (currentTick < targetTick && size > 0) {
+            currentTick++;
+            for (int level = levels - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (bits * level)) - 1)) == 0) {
+                    cascade(level);
+                }
+            }
+
+            int slot = (int) (currentTick & mask);
+            List<Entry<T>> expired = slots[0][slot];
+            if (expired != null) {
+                slots[0][slot] = null;
+                expired.forEach(entry -> due.add(entry.item()));
+                size -= expired.size();
+            }
+        }
+        currentTick = Math.max(currentTick, targetTick);
+        return due;
+    }
+
+    private void cascade(int level) {
+        int slot = (int) ((currentTick >>> (bits * level)) & mask);
+        List<Entry<T>> entries = slots[level][slot];
+        if (entries != null) {
+            slots[level][slot] = null;
+            entries.forEach(this::place);
+        }
+    }
+
+    private boolean place(Entry<T> entry) {
+        for (int level = 0; level < levels; level++) {
+            int shift = bits * (level + 1);
+            // Lower levels hold items in the current rotation of the level above; the top
+            // level wraps around and takes anything less than one rotation ahead.
+            boolean fits = level < levels - 1
+                    ? (entry.dueTick() >>> shift) == (currentTick >>> shift)
+                    : (entry.dueTick() >>> (shift - bits)) - (currentTick >>> (shift - bits)) <= mask;
+            if (fits) {
+                int slot = (int) ((entry.dueTick() >>> (bits * level)) & mask);
+                if (slots[level][slot] == null) {
+                    slots[level][slot] = new ArrayList<>();
+                }
+                slots[level][slot].add(entry);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record Entry<T>(T item, long dueTick) {
+    }
+}
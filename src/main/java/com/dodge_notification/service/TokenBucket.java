@@ -0,0 +1,59 @@
+package com.dodge_notification.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token bucket, implemented as the generic cell rate algorithm: the whole
+ * state is one "theoretical arrival time" updated with compare-and-set, so acquiring a
+ * permit costs a clock read and a CAS with no locks or refill thread.
+ */
+public class TokenBucket {
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(double permitsPerSecond, int burst, LongSupplier nanoClock) {
+        this.intervalNanos = Math.max(1L, (long) (1_000_000_000L / permitsPerSecond));
+        this.toleranceNanos = intervalNanos * (Math.max(burst, 1) - 1);
+        this.nanoClock = nanoClock;
+        this.theoreticalArrival = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    /**
+     * Takes a permit if one is available.
+     *
+     * @return 0 when the permit was taken, otherwise the nanoseconds until one will be
+     */
+    public long tryAcquire() {
+        while (true) {
+            long now = nanoClock.getAsLong();
+            long arrival = theoreticalArrival.get();
+            long start = Math.max(arrival, now);
+            long wait = start - now - toleranceNanos;
+
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, start + intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Returns a permit taken by {@link #tryAcquire()} that ended up unused.
+     */
+    public void refund() {
+        theoreticalArrival.addAndGet(-intervalNanos);
+    }
+
+    /**
+     * Whether the bucket is full again, in which case dropping it loses no state.
+     */
+    public boolean isIdle() {
+        return theoreticalArrival.get() <= nanoClock.getAsLong();
+    }
+}
@@ -1,6 +1,8 @@
 package com.dodge_notification.web;
 
 import com.dodge_notification.dto.ErrorResponse;
+import com.dodge_notification.exception.InvalidCursorException;
+import com.dodge_notification.exception.InvalidTemplateException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
@@ -28,6 +30,33 @@ public class ExceptionAdvice {
                 .body(responseBody);
     }
 
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ErrorResponse> invalidCursor() {
+
+        HttpStatus status = HttpStatus.BAD_REQUEST;
+        String message = "Invalid cursor. Please use the value of the X-Next-Cursor header.";
+
+        ErrorResponse responseBody = createErrorResponse(status, message);
+
+        return ResponseEntity
+                .status(status)
+                .body(responseBody);
+    }
+
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(InvalidTemplateException.class)
+    public ResponseEntity<ErrorResponse> invalidTemplate(InvalidTemplateException e) {
+
+        HttpStatus status = HttpStatus.BAD_REQUEST;
+
+        ErrorResponse responseBody = createErrorResponse(status, e.getMessage());
+
+        return ResponseEntity
+                .status(status)
+                .body(responseBody);
+    }
+
     private ErrorResponse createErrorResponse(HttpStatus status, String message) {
         return new ErrorResponse(status.value(), message);
     }
@@ -0,0 +1,127 @@
+package com.dodge_notification.channel;
+
+import com.dodge_notification.exception.DeliveryTimeoutException;
+import com.dodge_notification.model.Notification;
+import com.dodge_notification.model.NotificationType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSender;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class ChannelDispatcherTest {
+
+    private MockEnvironment environment;
+    private StubSmsChannel smsChannel;
+    private ChannelDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        environment = new MockEnvironment()
+                .withProperty("notification.channels.sms.workers", "1")
+                .withProperty("notification.channels.sms.queue-capacity", "10")
+                .withProperty("notification.channels.sms.timeout-ms", "100")
+                .withProperty("notification.channels.email.workers", "2")
+                .withProperty("notification.channels.email.timeout-ms", "1000");
+
+        smsChannel = new StubSmsChannel(500);
+        dispatcher = new ChannelDispatcher(List.of(new EmailChannel(mock(MailSender.class)), smsChannel), environment, false);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        dispatcher.destroy();
+    }
+
+    @Test
+    void send_shouldRunOnCallerThread() throws InterruptedException {
+        Notification sms = Notification.builder().type(NotificationType.SMS).body("code").build();
+        StubSmsChannel fastSms = new StubSmsChannel(0) {
+            @Override
+            public void send(Notification notification, String recipient) {
+                assertEquals("caller", Thread.currentThread().getName());
+                super.send(notification, recipient);
+            }
+        };
+        ChannelDispatcher smsOnly = new ChannelDispatcher(List.of(fastSms), new MockEnvironment(), false);
+        String name = Thread.currentThread().getName();
+        Thread.currentThread().setName("caller");
+        try {
+            smsOnly.send(sms, "+359888000000");
+        } finally {
+            Thread.currentThread().setName(name);
+            smsOnly.destroy();
+        }
+
+        assertEquals(1, fastSms.getSentCount());
+    }
+
+    @Test
+    void send_shouldTimeOutWhenSlowChannelIsSaturatedWithoutBlockingOthers() throws Exception {
+        Notification sms = Notification.builder().type(NotificationType.SMS).body("code").build();
+        Notification email = Notification.builder().type(NotificationType.EMAIL).subject("subj").body("body").build();
+        CountDownLatch busySending = new CountDownLatch(1);
+        CountDownLatch releaseBusy = new CountDownLatch(1);
+        StubSmsChannel blockingSms = new StubSmsChannel(0) {
+            @Override
+            public void send(Notification notification, String recipient) {
+                busySending.countDown();
+                try {
+                    releaseBusy.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.send(notification, recipient);
+            }
+        };
+        ChannelDispatcher saturated = new ChannelDispatcher(
+                List.of(new EmailChannel(mock(MailSender.class)), blockingSms), environment, false);
+        Thread busy = new Thread(() -> saturated.send(sms, "+359888000000"));
+        busy.start();
+
+        try {
+            assertTrue(busySending.await(5, TimeUnit.SECONDS));
+            assertThrows(DeliveryTimeoutException.class, () -> saturated.send(sms, "+359888000001"));
+
+            CompletableFuture<Void> emailSend = CompletableFuture.runAsync(() -> saturated.send(email, "user@mail.bg"));
+            assertDoesNotThrow(() -> emailSend.get(5, TimeUnit.SECONDS));
+        } finally {
+            releaseBusy.countDown();
+            busy.join();
+            saturated.destroy();
+        }
+        assertEquals(1, blockingSms.getSentCount());
+    }
+
+    @Test
+    void offer_shouldRunSendsInlineOnChannelWorker() throws InterruptedException {
+        Notification sms = Notification.builder().type(NotificationType.SMS).body("code").build();
+
+        CountDownLatch sent = new CountDownLatch(1);
+
+        assertTrue(dispatcher.offer(NotificationType.SMS, () -> {
+            dispatcher.send(sms, "+359888000000");
+            sent.countDown();
+        }));
+
+        assertTrue(sent.await(5, TimeUnit.SECONDS));
+        assertEquals(1, smsChannel.getSentCount());
+    }
+
+    @Test
+    void requireChannel_shouldRejectTypesWithoutChannel() {
+        ChannelDispatcher emailOnly = new ChannelDispatcher(
+                List.of(new EmailChannel(mock(MailSender.class))), new MockEnvironment(), false);
+
+        assertThrows(IllegalArgumentException.class, () -> emailOnly.requireChannel(NotificationType.SMS));
+        assertEquals(100, emailOnly.batchSize(NotificationType.EMAIL));
+    }
+}
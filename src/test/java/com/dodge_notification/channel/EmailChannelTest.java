@@ -0,0 +1,42 @@
+package com.dodge_notification.channel;
+
+import com.dodge_notification.model.Notification;
+import com.dodge_notification.model.NotificationType;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.MailSender;
+import org.springframework.mail.SimpleMailMessage;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+public class EmailChannelTest {
+
+    @Test
+    void sendAll_shouldReportOnlyFailedPosition_whenMessagesAreIdentical() {
+        MailSender mailSender = mock(MailSender.class);
+        MailSendException rejected = new MailSendException("rejected");
+        doAnswer(invocation -> {
+            Map<Object, Exception> failedMessages = new LinkedHashMap<>();
+            failedMessages.put(invocation.getArgument(1, SimpleMailMessage.class), rejected);
+            throw new MailSendException(failedMessages);
+        }).when(mailSender).send(any(SimpleMailMessage[].class));
+
+        Notification notification = Notification.builder()
+                .type(NotificationType.EMAIL)
+                .subject("Weekly summary")
+                .body("Same body")
+                .build();
+        Map<Integer, Exception> failures = new EmailChannel(mailSender).sendAll(
+                List.of(notification, notification, notification),
+                List.of("user@example.com", "user@example.com", "user@example.com"));
+
+        assertEquals(Map.of(1, rejected), failures);
+    }
+}
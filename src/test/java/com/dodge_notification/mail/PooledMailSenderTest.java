@@ -0,0 +1,136 @@
+package com.dodge_notification.mail;
+
+import jakarta.mail.Session;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSender;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+public class PooledMailSenderTest {
+
+    private static final int MESSAGES = 200;
+    private static final long HANDSHAKE_DELAY_MILLIS = 5;
+
+    private LocalSmtpServer smtpServer;
+    private PooledMailSender pooledMailSender;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        smtpServer = new LocalSmtpServer(HANDSHAKE_DELAY_MILLIS);
+        pooledMailSender = new PooledMailSender(
+                Session.getInstance(new Properties()), "smtp", "localhost", smtpServer.getPort(),
+                null, null, 2, 5000, 30000, 1000);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        pooledMailSender.destroy();
+        smtpServer.close();
+    }
+
+    @Test
+    void send_shouldReuseConnectionsAcrossMessages() {
+        for (int i = 0; i < MESSAGES; i++) {
+            pooledMailSender.send(message(i));
+        }
+
+        assertEquals(MESSAGES, smtpServer.getMessageCount());
+        assertEquals(1, smtpServer.getConnectionCount());
+        assertEquals(2, pooledMailSender.getIdleCount());
+    }
+
+    @Test
+    void send_shouldNotOpenMoreConnectionsThanPoolSize_whenCalledConcurrently() throws Exception {
+        ExecutorService senders = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < MESSAGES; i++) {
+            int index = i;
+            senders.execute(() -> pooledMailSender.send(message(index)));
+        }
+        senders.shutdown();
+        assertTrue(senders.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(MESSAGES, smtpServer.getMessageCount());
+        assertTrue(smtpServer.getConnectionCount() <= 2);
+    }
+
+    @Test
+    void send_shouldDeliverAllMessagesOfBatchOverOneConnection() {
+        SimpleMailMessage[] batch = new SimpleMailMessage[50];
+        for (int i = 0; i < batch.length; i++) {
+            batch[i] = message(i);
+        }
+
+        pooledMailSender.send(batch);
+
+        assertEquals(batch.length, smtpServer.getMessageCount());
+        assertEquals(1, smtpServer.getConnectionCount());
+    }
+
+    @Test
+    void send_shouldRecycleConnectionWithinBatch_whenMessageLimitIsReached() {
+        PooledMailSender limited = new PooledMailSender(
+                Session.getInstance(new Properties()), "smtp", "localhost", smtpServer.getPort(),
+                null, null, 1, 5000, 30000, 20);
+        SimpleMailMessage[] batch = new SimpleMailMessage[50];
+        for (int i = 0; i < batch.length; i++) {
+            batch[i] = message(i);
+        }
+
+        try {
+            limited.send(batch);
+        } finally {
+            limited.destroy();
+        }
+
+        assertEquals(batch.length, smtpServer.getMessageCount());
+        assertEquals(3, smtpServer.getConnectionCount());
+    }
+
+    @Test
+    void send_shouldUseFewerConnectionsThanConnectionPerMessageSender() {
+        JavaMailSenderImpl connectionPerMessage = new JavaMailSenderImpl();
+        connectionPerMessage.setHost("localhost");
+        connectionPerMessage.setPort(smtpServer.getPort());
+
+        long unpooledNanos = timeSends(connectionPerMessage);
+        int unpooledConnections = smtpServer.getConnectionCount();
+
+        long pooledNanos = timeSends(pooledMailSender);
+        int pooledConnections = smtpServer.getConnectionCount() - unpooledConnections;
+
+        log.info("Sent %d messages: connection per message %d ms over %d connections, pooled %d ms over %d connections."
+                .formatted(MESSAGES, TimeUnit.NANOSECONDS.toMillis(unpooledNanos), unpooledConnections,
+                        TimeUnit.NANOSECONDS.toMillis(pooledNanos), pooledConnections));
+
+        assertEquals(MESSAGES, unpooledConnections);
+        assertEquals(1, pooledConnections);
+    }
+
+    private long timeSends(MailSender mailSender) {
+        long start = System.nanoTime();
+        for (int i = 0; i < MESSAGES; i++) {
+            mailSender.send(message(i));
+        }
+        return System.nanoTime() - start;
+    }
+
+    private SimpleMailMessage message(int index) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom("noreply@localhost");
+        message.setTo("user%d@localhost".formatted(index));
+        message.setSubject("Subject " + index);
+        message.setText("Body " + index);
+        return message;
+    }
+}
@@ -0,0 +1,35 @@
+package com.dodge_notification.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UuidV7Test {
+
+    @Test
+    void generate_shouldSetVersionAndVariant() {
+        UUID uuid = UuidV7.generate();
+
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+    }
+
+    @Test
+    void generate_shouldEmbedTimestamp() {
+        long now = System.currentTimeMillis();
+
+        assertEquals(now, UuidV7.timestamp(UuidV7.generate(now)));
+    }
+
+    @Test
+    void generate_shouldSortByCreationTime() {
+        long now = System.currentTimeMillis();
+
+        UUID earlier = UuidV7.generate(now);
+        UUID later = UuidV7.generate(now + 1);
+
+        assertTrue(earlier.compareTo(later) < 0);
+    }
+}
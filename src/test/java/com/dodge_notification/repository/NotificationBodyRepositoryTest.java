@@ -0,0 +1,67 @@
+package com.dodge_notification.repository;
+
+import com.dodge_notification.model.Notification;
+import com.dodge_notification.model.NotificationBody;
+import com.dodge_notification.model.NotificationStatus;
+import com.dodge_notification.model.NotificationType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+public class NotificationBodyRepositoryTest {
+
+    @Autowired
+    private NotificationBodyRepository bodyRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Test
+    void deleteUnreferencedBefore_shouldKeepReferencedAndRecentBodies() {
+        LocalDateTime now = LocalDateTime.now();
+        bodyRepository.saveAll(List.of(body("referenced", now.minusDays(2)), body("orphan", now.minusDays(2)), body("recent", now)));
+        notificationRepository.save(Notification.builder()
+                .userId(UUID.randomUUID())
+                .subject("subject")
+                .bodyHash("referenced")
+                .createdOn(now)
+                .type(NotificationType.EMAIL)
+                .status(NotificationStatus.SUCCEEDED)
+                .build());
+
+        int deleted = bodyRepository.deleteUnreferencedBefore(now.minusDays(1));
+
+        assertEquals(1, deleted);
+        assertEquals(List.of("recent", "referenced"),
+                bodyRepository.findExistingHashes(List.of("referenced", "orphan", "recent")).stream().sorted().toList());
+    }
+
+    @Test
+    void deleteUnreferencedBefore_shouldKeepOldBodiesTouchedRecently() {
+        LocalDateTime now = LocalDateTime.now();
+        bodyRepository.saveAll(List.of(body("reused", now.minusDays(2)), body("orphan", now.minusDays(2))));
+
+        assertEquals(1, bodyRepository.touch(List.of("reused", "missing"), now));
+        int deleted = bodyRepository.deleteUnreferencedBefore(now.minusDays(1));
+
+        assertEquals(1, deleted);
+        assertEquals(List.of("reused"), bodyRepository.findExistingHashes(List.of("reused", "orphan")));
+    }
+
+    private NotificationBody body(String hash, LocalDateTime createdOn) {
+        return NotificationBody.builder()
+                .hash(hash)
+                .content(new byte[]{1})
+                .createdOn(createdOn)
+                .build();
+    }
+}
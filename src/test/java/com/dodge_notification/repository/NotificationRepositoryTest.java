@@ -0,0 +1,113 @@
+package com.dodge_notification.repository;
+
+import com.dodge_notification.dto.NotificationResponse;
+import com.dodge_notification.model.Notification;
+import com.dodge_notification.model.NotificationStatus;
+import com.dodge_notification.model.NotificationType;
+import com.dodge_notification.model.PartitionLease;
+import com.dodge_notification.model.UuidV7;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+public class NotificationRepositoryTest {
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Test
+    void save_shouldAssignTimeOrderedIds() {
+        Notification saved = notificationRepository.save(notification(UUID.randomUUID(), LocalDateTime.now()));
+
+        assertEquals(7, saved.getId().version());
+        assertTrue(Math.abs(System.currentTimeMillis() - UuidV7.timestamp(saved.getId())) < 60_000);
+    }
+
+    @Test
+    void findSummariesAfter_shouldContinueFromCursorInCreationOrder() {
+        UUID userId = UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now();
+        notificationRepository.saveAll(List.of(
+                notification(userId, now.minusMinutes(3)),
+                notification(userId, now.minusMinutes(2)),
+                notification(userId, now.minusMinutes(1))));
+
+        List<NotificationResponse> firstPage = notificationRepository.findSummaries(Limit.of(2));
+        NotificationResponse last = firstPage.get(1);
+        List<NotificationResponse> secondPage = notificationRepository.findSummariesAfter(last.getCreatedOn(), last.getId(), Limit.of(2));
+
+        assertEquals(2, firstPage.size());
+        assertTrue(firstPage.get(0).getCreatedOn().isAfter(firstPage.get(1).getCreatedOn()));
+        assertEquals(1, secondPage.size());
+        assertTrue(secondPage.get(0).getCreatedOn().isBefore(last.getCreatedOn()));
+    }
+
+    @Test
+    void softDeleteAllByUserId_shouldOnlyTouchActiveRowsOfUser() {
+        UUID userId = UUID.randomUUID();
+        UUID otherUserId = UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now();
+        notificationRepository.saveAll(List.of(
+                notification(userId, now),
+                notification(userId, now),
+                notification(otherUserId, now)));
+
+        int cleared = notificationRepository.softDeleteAllByUserId(userId, now);
+        int clearedAgain = notificationRepository.softDeleteAllByUserId(userId, now);
+
+        assertEquals(2, cleared);
+        assertEquals(0, clearedAgain);
+        assertEquals(1, notificationRepository.findSummaries(Limit.of(10)).size());
+        assertEquals(2, notificationRepository.findPurgeableIds(now.plusSeconds(1), Set.of(PartitionLease.partitionOf(userId)), Limit.of(10)).size());
+    }
+
+    @Test
+    void findActiveIdsByUserId_shouldSkipRowsCreatedAfterClear() {
+        UUID userId = UUID.randomUUID();
+        LocalDateTime clearedAt = LocalDateTime.now();
+        Notification before = notificationRepository.save(notification(userId, clearedAt.minusMinutes(1)));
+        notificationRepository.save(notification(userId, clearedAt.plusSeconds(1)));
+
+        assertEquals(List.of(before.getId()), notificationRepository.findActiveIdsByUserId(userId, clearedAt, Limit.of(10)));
+    }
+
+    @Test
+    void clearedRetries_shouldNeitherBeClaimedNorUpdated() {
+        UUID userId = UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now();
+        Notification retrying = notification(userId, now.minusMinutes(1));
+        retrying.setStatus(NotificationStatus.RETRYING);
+        retrying.setNextAttemptAt(now.minusSeconds(1));
+        notificationRepository.saveAndFlush(retrying);
+        Set<Integer> partitions = Set.of(PartitionLease.partitionOf(userId));
+
+        assertEquals(1, notificationRepository.findDueForUpdate(Set.of(NotificationStatus.RETRYING), now, partitions, Limit.of(10)).size());
+        notificationRepository.softDeleteAllByUserId(userId, now);
+
+        assertTrue(notificationRepository.findDueForUpdate(Set.of(NotificationStatus.RETRYING), now, partitions, Limit.of(10)).isEmpty());
+        assertEquals(0, notificationRepository.updateOutcome(retrying.getId(), NotificationStatus.SUCCEEDED, 1, null));
+    }
+
+    private Notification notification(UUID userId, LocalDateTime createdOn) {
+        return Notification.builder()
+                .userId(userId)
+                .subject("subject")
+                .body("body")
+                .createdOn(createdOn)
+                .type(NotificationType.EMAIL)
+                .status(NotificationStatus.SUCCEEDED)
+                .deleted(false)
+                .build();
+    }
+}
@@ -0,0 +1,106 @@
+package com.dodge_notification.service;
+
+import com.dodge_notification.model.Notification;
+import com.dodge_notification.model.NotificationBody;
+import com.dodge_notification.repository.NotificationBodyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BodyStoreUnitTest {
+
+    @Mock
+    private NotificationBodyRepository bodyRepository;
+
+    private BodyStore bodyStore;
+
+    @BeforeEach
+    void setUp() {
+        bodyStore = new BodyStore(bodyRepository, 100, Duration.ofHours(1), 100);
+    }
+
+    @Test
+    void storeAll_shouldWriteIdenticalBodiesOnce() {
+        Notification first = Notification.builder().body("Your order has shipped").build();
+        Notification second = Notification.builder().body("Your order has shipped").build();
+        when(bodyRepository.findExistingHashes(anyCollection())).thenReturn(List.of());
+
+        bodyStore.storeAll(List.of(first, second));
+
+        ArgumentCaptor<List<NotificationBody>> saved = ArgumentCaptor.forClass(List.class);
+        verify(bodyRepository).saveAll(saved.capture());
+        assertEquals(1, saved.getValue().size());
+        assertEquals(first.getBodyHash(), second.getBodyHash());
+        assertEquals(64, first.getBodyHash().length());
+    }
+
+    @Test
+    void storeAll_shouldSkipDatabase_whenHashWasStoredRecently() {
+        when(bodyRepository.findExistingHashes(anyCollection())).thenReturn(List.of());
+        bodyStore.store(Notification.builder().body("body").build());
+
+        bodyStore.store(Notification.builder().body("body").build());
+
+        verify(bodyRepository, times(1)).findExistingHashes(anyCollection());
+        verify(bodyRepository, times(1)).saveAll(any());
+    }
+
+    @Test
+    void storeAll_shouldTouchBodiesBeforeCheckingWhichExist() {
+        Notification notification = Notification.builder().body("body").build();
+        when(bodyRepository.findExistingHashes(anyCollection())).thenReturn(List.of(BodyStore.hash("body")));
+
+        bodyStore.store(notification);
+
+        InOrder inOrder = inOrder(bodyRepository);
+        inOrder.verify(bodyRepository).touch(anyCollection(), any());
+        inOrder.verify(bodyRepository).findExistingHashes(anyCollection());
+        verify(bodyRepository, never()).save(any());
+        assertEquals(BodyStore.hash("body"), notification.getBodyHash());
+    }
+
+    @Test
+    void storeAll_shouldLeaveHashUnset_whenBodyCouldNotBeStored() {
+        Notification notification = Notification.builder().body("body").build();
+        when(bodyRepository.findExistingHashes(anyCollection())).thenReturn(List.of());
+        when(bodyRepository.saveAll(any())).thenThrow(new DataAccessResourceFailureException("database is down"));
+
+        assertThrows(DataAccessResourceFailureException.class, () -> bodyStore.store(notification));
+
+        assertNull(notification.getBodyHash());
+        assertThrows(DataAccessResourceFailureException.class, () -> bodyStore.store(notification));
+        verify(bodyRepository, times(2)).findExistingHashes(anyCollection());
+    }
+
+    @Test
+    void storeAll_shouldIgnoreTemplatedNotifications() {
+        bodyStore.store(Notification.builder().templateId("shipped").build());
+
+        verifyNoInteractions(bodyRepository);
+    }
+
+    @Test
+    void load_shouldDecompressStoredBody() {
+        String body = "Hello, your order is on its way. ".repeat(20);
+        byte[] compressed = BodyStore.compress(body);
+        when(bodyRepository.findById("hash")).thenReturn(Optional.of(NotificationBody.builder().hash("hash").content(compressed).build()));
+
+        assertEquals(body, bodyStore.load("hash"));
+        assertTrue(compressed.length < body.length());
+    }
+}
@@ -0,0 +1,37 @@
+package com.dodge_notification.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompiledTemplateTest {
+
+    @Test
+    void render_shouldSubstituteEveryOccurrence() {
+        CompiledTemplate template = CompiledTemplate.compile("{{name}}, your code is {{ code }}. Bye {{name}}");
+
+        assertEquals("Ana, your code is 1234. Bye Ana", template.render(Map.of("name", "Ana", "code", "1234")));
+        assertEquals(Set.of("name", "code"), template.getVariableNames());
+    }
+
+    @Test
+    void render_shouldReturnLiteralTemplateUnchanged() {
+        assertEquals("No variables here", CompiledTemplate.compile("No variables here").render(Map.of()));
+    }
+
+    @Test
+    void render_shouldRejectMissingVariable() {
+        CompiledTemplate template = CompiledTemplate.compile("Hi {{name}}");
+
+        assertThrows(IllegalArgumentException.class, () -> template.render(Map.of()));
+    }
+
+    @Test
+    void compile_shouldRejectUnclosedOrEmptyVariable() {
+        assertThrows(IllegalArgumentException.class, () -> CompiledTemplate.compile("Hi {{name"));
+        assertThrows(IllegalArgumentException.class, () -> CompiledTemplate.compile("Hi {{ }}"));
+    }
+}
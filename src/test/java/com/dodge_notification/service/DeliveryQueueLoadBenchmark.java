@@ -0,0 +1,76 @@
+package com.dodge_notification.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.condition.JRE;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the platform thread pool with the virtual thread mode of {@link DeliveryQueue}
+ * against a simulated SMTP round trip. Both modes run with the same worker limit so that only
+ * the thread model differs; see {@link NotificationRequestLoadBenchmark} for the request-level run. Opt-in:
+ * {@code mvn test -Pjava21 -Dtest=DeliveryQueueLoadBenchmark -Dbenchmark=true}.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class DeliveryQueueLoadBenchmark {
+
+    private static final int SENDS = 5_000;
+    private static final int WORKERS = 32;
+    private static final long SMTP_LATENCY_MILLIS = 50;
+
+    @Test
+    void platformThreads() throws Exception {
+        run("platform", WORKERS, false);
+    }
+
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    void virtualThreads() throws Exception {
+        run("virtual", WORKERS, true);
+    }
+
+    private void run(String mode, int workers, boolean virtualThreads) throws Exception {
+        DeliveryQueue deliveryQueue = new DeliveryQueue(mode, workers, SENDS, 60, virtualThreads);
+        AtomicInteger concurrent = new AtomicInteger();
+        AtomicInteger maxConcurrent = new AtomicInteger();
+        long[] latencies = new long[SENDS];
+        CountDownLatch done = new CountDownLatch(SENDS);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < SENDS; i++) {
+            int index = i;
+            long offeredAt = System.nanoTime();
+            assertTrue(deliveryQueue.offer(() -> {
+                maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(SMTP_LATENCY_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    concurrent.decrementAndGet();
+                    latencies[index] = System.nanoTime() - offeredAt;
+                    done.countDown();
+                }
+            }));
+        }
+        assertTrue(done.await(10, TimeUnit.MINUTES));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        deliveryQueue.destroy();
+
+        Arrays.sort(latencies);
+        log.info("%s: %d sends in %d ms, max concurrent sends %d, p50 %d ms, p99 %d ms".formatted(
+                mode, SENDS, elapsedMillis, maxConcurrent.get(),
+                TimeUnit.NANOSECONDS.toMillis(latencies[SENDS / 2]),
+                TimeUnit.NANOSECONDS.toMillis(latencies[(int) (SENDS * 0.99)])));
+        assertTrue(maxConcurrent.get() <= workers);
+    }
+}
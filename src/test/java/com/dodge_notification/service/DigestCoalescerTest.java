@@ -0,0 +1,69 @@
+package com.dodge_notification.service;
+
+import com.dodge_notification.model.Notification;
+import com.dodge_notification.model.NotificationType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DigestCoalescerTest {
+
+    private final List<List<Notification>> closed = new CopyOnWriteArrayList<>();
+
+    private DigestCoalescer coalescer;
+
+    @AfterEach
+    void tearDown() {
+        coalescer.destroy();
+    }
+
+    @Test
+    void add_shouldCloseDigestAsSoonAsItIsFull() {
+        coalescer = new DigestCoalescer(true, Duration.ofHours(1), 2);
+        UUID userId = UUID.randomUUID();
+
+        coalescer.add(notification(userId, NotificationType.EMAIL), "user@mail.bg", (contact, digest) -> closed.add(digest));
+        assertTrue(closed.isEmpty());
+        coalescer.add(notification(userId, NotificationType.EMAIL), "user@mail.bg", (contact, digest) -> closed.add(digest));
+
+        assertEquals(1, closed.size());
+        assertEquals(2, closed.get(0).size());
+    }
+
+    @Test
+    void add_shouldKeepUsersAndChannelsApart_andCloseWhenWindowEnds() throws InterruptedException {
+        coalescer = new DigestCoalescer(true, Duration.ofMillis(50), 10);
+        UUID userId = UUID.randomUUID();
+        CountDownLatch allClosed = new CountDownLatch(3);
+
+        for (Notification notification : List.of(notification(userId, NotificationType.EMAIL),
+                notification(userId, NotificationType.EMAIL),
+                notification(userId, NotificationType.SMS),
+                notification(UUID.randomUUID(), NotificationType.EMAIL))) {
+            coalescer.add(notification, "contact", (contact, digest) -> {
+                closed.add(digest);
+                allClosed.countDown();
+            });
+        }
+
+        assertTrue(allClosed.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(1, 1, 2), closed.stream().map(List::size).sorted().toList());
+    }
+
+    private static Notification notification(UUID userId, NotificationType type) {
+        return Notification.builder()
+                .id(UUID.randomUUID())
+                .userId(userId)
+                .type(type)
+                .subject("subject")
+                .build();
+    }
+}
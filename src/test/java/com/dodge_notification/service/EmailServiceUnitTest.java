@@ -1,25 +1,55 @@
 package com.dodge_notification.service;
 
 
+import com.dodge_notification.channel.ChannelDispatcher;
+import com.dodge_notification.channel.EmailChannel;
+import com.dodge_notification.dto.ArchivedNotification;
+import com.dodge_notification.dto.BatchItemResult;
 import com.dodge_notification.dto.NotificationRequest;
+import com.dodge_notification.dto.NotificationResponse;
+import com.dodge_notification.dto.NotificationStatusEvent;
+import com.dodge_notification.dto.StatusCursor;
+import com.dodge_notification.dto.StatusPage;
+import com.dodge_notification.dto.TemplateRequest;
+import com.dodge_notification.exception.InvalidCursorException;
+import com.dodge_notification.model.HistoryCutoff;
 import com.dodge_notification.model.Notification;
 import com.dodge_notification.model.NotificationPreference;
 import com.dodge_notification.model.NotificationStatus;
+import com.dodge_notification.model.NotificationType;
+import com.dodge_notification.repository.HistoryCutoffRepository;
 import com.dodge_notification.repository.NotificationRepository;
+import com.dodge_notification.repository.NotificationTemplateRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.MailSender;
 import org.springframework.mail.SimpleMailMessage;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.BiConsumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,9 +61,74 @@ public class EmailServiceUnitTest {
     @Mock
     private NotificationRepository notificationRepository;
 
+    @Mock
+    private ChannelDispatcher channelDispatcher;
+
+    @Mock
+    private NotificationCleanupService notificationCleanupService;
+
+    @Mock
+    private BodyStore bodyStore;
+
+    @Mock
+    private NotificationArchive notificationArchive;
+
+    @Mock
+    private HistoryCutoffRepository historyCutoffRepository;
+
+    @Mock
+    private NotificationStats notificationStats;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private DigestCoalescer digestCoalescer;
+
+    @Mock
+    private NotificationWriteBehind notificationWriteBehind;
+
+    @Spy
+    private PreferenceService preferenceService =
+            new PreferenceService(new DefaultPreferenceProvider(), 100, Duration.ofMinutes(10), Duration.ofMinutes(1));
+
+    @Spy
+    private RetryPolicy retryPolicy =
+            new RetryPolicy(5, Duration.ofSeconds(30), Duration.ofHours(1), Duration.ofMinutes(5));
+
+    @Spy
+    private NotificationMetrics notificationMetrics =
+            new NotificationMetrics(new SimpleMeterRegistry(), ObservationRegistry.NOOP);
+
+    @Spy
+    private SendRateLimiter sendRateLimiter = new SendRateLimiter(false, 50, 100, 0.2, 5);
+
+    @Spy
+    private NotificationDeduplicator notificationDeduplicator =
+            new NotificationDeduplicator(true, 100, Duration.ofHours(24), Duration.ofMinutes(10));
+
+    @Spy
+    private RecentNotificationCache recentNotificationCache = new RecentNotificationCache(100, 20, Duration.ofMinutes(5));
+
+    @Spy
+    private TemplateService templateService =
+            new TemplateService(mock(NotificationTemplateRepository.class), 100, Duration.ofMinutes(10), Duration.ofSeconds(30));
+
     @InjectMocks
     private EmailService emailService;
 
+    @BeforeEach
+    void routeEmailThroughMailSender() {
+        EmailChannel emailChannel = new EmailChannel(mailSender);
+
+        lenient().doAnswer(invocation -> {
+            emailChannel.send(invocation.getArgument(0), invocation.getArgument(1));
+            return null;
+        }).when(channelDispatcher).send(any(), any());
+        lenient().when(channelDispatcher.sendAll(any(), anyList(), anyList()))
+                .thenAnswer(invocation -> emailChannel.sendAll(invocation.getArgument(1), invocation.getArgument(2)));
+        lenient().when(channelDispatcher.batchSize(any())).thenReturn(100);
+    }
 
     @Test
     void sendNotificationEmail_shouldThrowException_whenUserPreferenceDisabled() {
@@ -68,7 +163,7 @@ public class EmailServiceUnitTest {
     }
 
     @Test
-    void sendNotificationEmail_shouldSetStatusFailed_whenMailSenderThrowsException() {
+    void sendNotificationEmail_shouldScheduleRetry_whenMailSenderThrowsException() {
         UUID userId = UUID.randomUUID();
         NotificationRequest notificationRequest = new NotificationRequest(userId, "subj", "body");
 
@@ -80,30 +175,632 @@ public class EmailServiceUnitTest {
                 .when(mailSender)
                 .send(any(SimpleMailMessage.class));
 
-        Notification saved = Notification.builder()
-                .status(NotificationStatus.FAILED)
+        when(notificationRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Notification result = spyService.sendNotificationEmail(notificationRequest);
+
+        assertEquals(NotificationStatus.RETRYING, result.getStatus());
+        assertEquals(1, result.getAttempts());
+        assertTrue(result.getNextAttemptAt().isAfter(LocalDateTime.now()));
+        verify(mailSender, times(1)).send(any(SimpleMailMessage.class));
+        verify(notificationRepository, times(1)).save(any(Notification.class));
+        verify(notificationMetrics, times(1)).recordOutcome(eq(NotificationType.EMAIL), eq(NotificationStatus.RETRYING), any(RuntimeException.class));
+    }
+
+    @Test
+    void sendNotificationEmail_shouldRouteToRequestedChannel() {
+        UUID userId = UUID.randomUUID();
+        NotificationRequest request = new NotificationRequest(userId, "subj", "body", NotificationType.SMS);
+        when(notificationRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Notification result = emailService.sendNotificationEmail(request);
+
+        assertEquals(NotificationType.SMS, result.getType());
+        verify(channelDispatcher).requireChannel(NotificationType.SMS);
+        verify(channelDispatcher).send(result, "+359888000000");
+    }
+
+    @Test
+    void sendNotificationEmail_shouldStoreTemplateReferenceAndSendRenderedBody() {
+        templateService.register("shipped", new TemplateRequest("Order {{order}} shipped", "Hi {{name}}, order {{order}} is on its way."));
+        NotificationRequest request = NotificationRequest.builder()
+                .userId(UUID.randomUUID())
+                .templateId("shipped")
+                .variables(Map.of("name", "Stoyan", "order", "42"))
                 .build();
+        when(notificationRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Notification result = emailService.sendNotificationEmail(request);
+
+        assertEquals("Order 42 shipped", result.getSubject());
+        assertNull(result.getBody());
+        assertEquals("shipped", result.getTemplateId());
+        assertEquals(1, result.getTemplateVersion());
+        assertEquals(Map.of("name", "Stoyan", "order", "42"), result.getVariables());
+        ArgumentCaptor<SimpleMailMessage> sent = ArgumentCaptor.forClass(SimpleMailMessage.class);
+        verify(mailSender).send(sent.capture());
+        assertEquals("Hi Stoyan, order 42 is on its way.", sent.getValue().getText());
+    }
 
-        when(notificationRepository.save(any())).thenReturn(saved);
+    @Test
+    void sendNotificationEmail_shouldRejectTemplatedRequest_whenVariableMissing() {
+        templateService.register("shipped", new TemplateRequest("Order shipped", "Hi {{name}}"));
+        NotificationRequest request = NotificationRequest.builder()
+                .userId(UUID.randomUUID())
+                .templateId("shipped")
+                .build();
 
-        Notification result = spyService.sendNotificationEmail(notificationRequest);
+        assertThrows(IllegalArgumentException.class, () -> emailService.sendNotificationEmail(request));
+        verifyNoInteractions(mailSender, notificationRepository);
+    }
+
+    @Test
+    void sendNotificationEmail_shouldDeferWithoutSending_whenRateLimited() {
+        UUID userId = UUID.randomUUID();
+        NotificationRequest notificationRequest = new NotificationRequest(userId, "subj", "body");
+
+        doReturn(Duration.ofSeconds(5)).when(sendRateLimiter).tryAcquire(any());
+        when(notificationRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Notification result = emailService.sendNotificationEmail(notificationRequest);
 
-        assertEquals(NotificationStatus.FAILED, result.getStatus());
+        assertEquals(NotificationStatus.DEFERRED, result.getStatus());
+        assertEquals(0, result.getAttempts());
+        assertTrue(result.getNextAttemptAt().isAfter(LocalDateTime.now()));
+        verifyNoInteractions(mailSender);
+    }
+
+    @Test
+    void sendNotificationEmails_shouldSendOnlyPermittedItems_whenRateLimited() {
+        UUID userId = UUID.randomUUID();
+        List<NotificationRequest> requests = List.of(
+                new NotificationRequest(userId, "subj1", "body1"),
+                new NotificationRequest(userId, "subj2", "body2"));
+
+        doReturn(Duration.ZERO, Duration.ofSeconds(5)).when(sendRateLimiter).tryAcquire(any());
+        when(notificationRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<BatchItemResult> results = emailService.sendNotificationEmails(requests);
+
+        assertEquals(NotificationStatus.SUCCEEDED, results.get(0).getStatus());
+        assertEquals(NotificationStatus.DEFERRED, results.get(1).getStatus());
+        ArgumentCaptor<SimpleMailMessage[]> sent = ArgumentCaptor.forClass(SimpleMailMessage[].class);
+        verify(mailSender).send(sent.capture());
+        assertEquals(1, sent.getValue().length);
+    }
+
+    @Test
+    void sendNotificationEmail_shouldReturnOriginalResult_whenIdempotencyKeyRepeats() {
+        UUID userId = UUID.randomUUID();
+        assignIdsOnSave();
+
+        Notification first = emailService.sendNotificationEmail(new NotificationRequest(userId, "subj", "body"), "key-1");
+        Notification retry = emailService.sendNotificationEmail(new NotificationRequest(userId, "subj", "body"), "key-1");
+
+        assertNotSame(first, retry);
+        assertEquals(first.getId(), retry.getId());
+        assertEquals(NotificationStatus.SUCCEEDED, retry.getStatus());
         verify(mailSender, times(1)).send(any(SimpleMailMessage.class));
         verify(notificationRepository, times(1)).save(any(Notification.class));
     }
 
+    @Test
+    void sendNotificationEmail_shouldSuppressSameContentWithinWindow_whenNoKeyGiven() {
+        UUID userId = UUID.randomUUID();
+        assignIdsOnSave();
+
+        Notification first = emailService.sendNotificationEmail(new NotificationRequest(userId, "subj", "body"));
+        Notification duplicate = emailService.sendNotificationEmail(new NotificationRequest(userId, "subj", "body"));
+        Notification other = emailService.sendNotificationEmail(new NotificationRequest(userId, "subj", "other body"));
+
+        assertEquals(first.getId(), duplicate.getId());
+        assertNotEquals(first.getId(), other.getId());
+        verify(mailSender, times(2)).send(any(SimpleMailMessage.class));
+    }
 
+    @Test
+    void sendNotificationEmail_shouldKeepSameContentScheduledForDifferentTimes() {
+        UUID userId = UUID.randomUUID();
+        LocalDateTime morning = LocalDateTime.now().plusDays(1).withHour(9);
+        assignIdsOnSave();
+
+        Notification first = emailService.sendNotificationEmail(NotificationRequest.builder()
+                .userId(userId).subject("Reminder").body("Stand-up").sendAt(morning).build());
+        Notification second = emailService.sendNotificationEmail(NotificationRequest.builder()
+                .userId(userId).subject("Reminder").body("Stand-up").sendAt(morning.plusHours(1)).build());
+
+        assertNotEquals(first.getId(), second.getId());
+        assertEquals(morning, first.getSendAt());
+        assertEquals(morning.plusHours(1), second.getSendAt());
+        verify(notificationRepository, times(2)).save(any(Notification.class));
+    }
 
     @Test
-    void getAllStatuses_shouldReturnListFromRepository() {
-        List<Notification> expected = List.of(new Notification());
-        when(notificationRepository.findAllByDeletedFalse()).thenReturn(expected);
+    void queueNotificationEmail_shouldRememberRequestLeftToTheOutbox() {
+        UUID userId = UUID.randomUUID();
+        NotificationRequest request = new NotificationRequest(userId, "subj", "body");
+        assignIdsOnSave();
+        when(channelDispatcher.offer(eq(NotificationType.EMAIL), any())).thenReturn(false);
 
-        List<Notification> result = emailService.getAllStatuses();
+        Notification accepted = emailService.queueNotificationEmail(request, "key-1");
+        Notification repeated = emailService.queueNotificationEmail(request, "key-1");
 
-        assertEquals(expected, result);
-        verify(notificationRepository, times(1)).findAllByDeletedFalse();
+        assertEquals(NotificationStatus.RETRYING, accepted.getStatus());
+        assertEquals(accepted.getId(), repeated.getId());
+        verify(channelDispatcher, times(1)).offer(any(), any());
+    }
+
+    @Test
+    void queueNotificationEmail_shouldReturnStatusAtAcceptance_whenOriginalChangedSince() {
+        UUID userId = UUID.randomUUID();
+        NotificationRequest request = new NotificationRequest(userId, "subj", "body");
+        assignIdsOnSave();
+        when(channelDispatcher.offer(eq(NotificationType.EMAIL), any())).thenReturn(true);
+
+        Notification accepted = emailService.queueNotificationEmail(request, "key-1");
+        accepted.setStatus(NotificationStatus.SUCCEEDED);
+        Notification repeated = emailService.queueNotificationEmail(request, "key-1");
+        repeated.setStatus(NotificationStatus.FAILED);
+        Notification again = emailService.queueNotificationEmail(request, "key-1");
+
+        assertEquals(accepted.getId(), again.getId());
+        assertEquals(NotificationStatus.PENDING, again.getStatus());
+        assertEquals(NotificationStatus.SUCCEEDED, accepted.getStatus());
+    }
+
+    @Test
+    void getNotificationHistory_shouldMergeLiveAndArchivedNewestFirst() {
+        UUID userId = UUID.randomUUID();
+        Notification live = Notification.builder()
+                .id(UUID.randomUUID())
+                .userId(userId)
+                .subject("live")
+                .createdOn(LocalDateTime.now())
+                .build();
+        ArchivedNotification archived = ArchivedNotification.builder()
+                .id(UUID.randomUUID())
+                .userId(userId)
+                .subject("archived")
+                .createdOn(LocalDateTime.now().minusDays(120))
+                .build();
+        ArchivedNotification alsoLive = ArchivedNotification.builder()
+                .id(live.getId())
+                .userId(userId)
+                .subject("live")
+                .createdOn(live.getCreatedOn())
+                .build();
+        when(notificationRepository.findAllByUserIdAndDeletedIsFalse(userId)).thenReturn(List.of(live));
+        when(notificationArchive.findByUserId(userId)).thenReturn(List.of(archived, alsoLive));
+
+        List<NotificationResponse> history = emailService.getNotificationHistory(userId);
+
+        assertEquals(List.of("live", "archived"), history.stream().map(NotificationResponse::getSubject).toList());
+    }
+
+    @Test
+    void getNotificationHistory_shouldLeaveOutArchivedRowsFromBeforeLastClear() {
+        UUID userId = UUID.randomUUID();
+        LocalDateTime clearedBefore = LocalDateTime.now().minusDays(100);
+        ArchivedNotification cleared = ArchivedNotification.builder()
+                .id(UUID.randomUUID())
+                .userId(userId)
+                .subject("cleared")
+                .createdOn(clearedBefore.minusDays(20))
+                .build();
+        ArchivedNotification kept = ArchivedNotification.builder()
+                .id(UUID.randomUUID())
+                .userId(userId)
+                .subject("kept")
+                .createdOn(clearedBefore.plusDays(5))
+                .build();
+        when(historyCutoffRepository.findById(userId)).thenReturn(Optional.of(HistoryCutoff.builder()
+                .userId(userId)
+                .clearedBefore(clearedBefore)
+                .build()));
+        when(notificationArchive.findByUserId(userId)).thenReturn(List.of(cleared, kept));
+
+        List<NotificationResponse> history = emailService.getNotificationHistory(userId);
+
+        assertEquals(List.of("kept"), history.stream().map(NotificationResponse::getSubject).toList());
+    }
+
+    @Test
+    void redeliver_shouldMarkDead_whenLastAttemptFails() {
+        UUID userId = UUID.randomUUID();
+        Notification notification = Notification.builder()
+                .userId(userId)
+                .subject("subj")
+                .body("body")
+                .type(NotificationType.EMAIL)
+                .status(NotificationStatus.RETRYING)
+                .attempts(retryPolicy.getMaxAttempts() - 1)
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+
+        doThrow(new RuntimeException("Mail error"))
+                .when(mailSender)
+                .send(any(SimpleMailMessage.class));
+
+        emailService.redeliver(notification);
+
+        assertEquals(NotificationStatus.DEAD, notification.getStatus());
+        assertEquals(retryPolicy.getMaxAttempts(), notification.getAttempts());
+        assertNull(notification.getNextAttemptAt());
+        verify(notificationRepository).updateOutcome(notification.getId(), NotificationStatus.DEAD, retryPolicy.getMaxAttempts(), null);
+        verify(notificationRepository, never()).save(any());
+    }
+
+    @Test
+    void redeliver_shouldLoadStoredBody_whenNotificationWasReadBack() {
+        Notification notification = Notification.builder()
+                .userId(UUID.randomUUID())
+                .subject("subj")
+                .bodyHash("abc")
+                .type(NotificationType.EMAIL)
+                .status(NotificationStatus.RETRYING)
+                .attempts(1)
+                .build();
+        when(bodyStore.load("abc")).thenReturn("stored body");
+
+        emailService.redeliver(notification);
+
+        ArgumentCaptor<SimpleMailMessage> sent = ArgumentCaptor.forClass(SimpleMailMessage.class);
+        verify(mailSender).send(sent.capture());
+        assertEquals("stored body", sent.getValue().getText());
+        assertEquals(NotificationStatus.SUCCEEDED, notification.getStatus());
+    }
+
+    @Test
+    void redeliver_shouldMarkSucceeded_whenRetrySucceeds() {
+        Notification notification = Notification.builder()
+                .userId(UUID.randomUUID())
+                .subject("subj")
+                .body("body")
+                .type(NotificationType.EMAIL)
+                .status(NotificationStatus.RETRYING)
+                .attempts(1)
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+
+        emailService.redeliver(notification);
+
+        assertEquals(NotificationStatus.SUCCEEDED, notification.getStatus());
+        assertEquals(2, notification.getAttempts());
+        assertNull(notification.getNextAttemptAt());
+        verify(notificationRepository).updateOutcome(notification.getId(), NotificationStatus.SUCCEEDED, 2, null);
+        verify(notificationRepository, never()).save(any());
+    }
+
+    @Test
+    void redeliver_shouldNotBringBackNotification_whenClearedBetweenClaimAndSave() {
+        Notification notification = Notification.builder()
+                .id(UUID.randomUUID())
+                .userId(UUID.randomUUID())
+                .subject("subj")
+                .body("body")
+                .type(NotificationType.EMAIL)
+                .status(NotificationStatus.RETRYING)
+                .attempts(1)
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+        // The clear commits while the retry is being sent, so the conditional update finds no live row.
+        when(notificationRepository.updateOutcome(notification.getId(), NotificationStatus.SUCCEEDED, 2, null)).thenReturn(0);
+
+        emailService.redeliver(notification);
+
+        verify(notificationRepository, never()).save(any());
+        verify(notificationRepository, never()).saveAll(any());
+        verifyNoInteractions(notificationStats, eventPublisher);
+    }
+
+
+    @Test
+    void queueNotificationEmail_shouldSavePendingAndDeliverOnWorker() {
+        UUID userId = UUID.randomUUID();
+        NotificationRequest req = new NotificationRequest(userId, "subj", "body");
+
+        when(notificationRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        when(channelDispatcher.offer(eq(NotificationType.EMAIL), task.capture())).thenReturn(true);
+
+        Notification result = emailService.queueNotificationEmail(req);
+
+        assertEquals(NotificationStatus.PENDING, result.getStatus());
+        verifyNoInteractions(mailSender);
+
+        task.getValue().run();
+
+        assertEquals(NotificationStatus.SUCCEEDED, result.getStatus());
+        verify(mailSender, times(1)).send(any(SimpleMailMessage.class));
+        verify(notificationRepository, times(1)).save(result);
+        verify(notificationRepository).updateOutcome(result.getId(), NotificationStatus.SUCCEEDED, 1, null);
+    }
+
+    @Test
+    void queueNotificationEmail_shouldLeaveNotificationToRetryScheduler_whenQueueIsFull() {
+        UUID userId = UUID.randomUUID();
+        NotificationRequest req = new NotificationRequest(userId, "subj", "body");
+
+        when(notificationRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(channelDispatcher.offer(eq(NotificationType.EMAIL), any())).thenReturn(false);
+
+        ArgumentCaptor<Notification> saved = ArgumentCaptor.forClass(Notification.class);
+
+        Notification result = emailService.queueNotificationEmail(req);
+
+        verify(notificationRepository, times(1)).save(saved.capture());
+        verify(notificationRepository).updateOutcome(eq(result.getId()), eq(NotificationStatus.RETRYING), eq(0), any());
+        assertEquals(NotificationStatus.RETRYING, result.getStatus());
+        assertEquals(0, result.getAttempts());
+        assertTrue(result.getNextAttemptAt().isBefore(LocalDateTime.now().plus(retryPolicy.getInitialBackoff()).plusSeconds(1)));
+        verifyNoInteractions(mailSender);
+    }
+
+    @Test
+    void sendNotificationEmails_shouldSendOneChunkAndSaveAllInOneCall() {
+        UUID userId = UUID.randomUUID();
+        List<NotificationRequest> requests = List.of(
+                new NotificationRequest(userId, "subj1", "body1"),
+                new NotificationRequest(userId, "subj2", "body2"));
+
+        when(notificationRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<BatchItemResult> results = emailService.sendNotificationEmails(requests);
+
+        assertEquals(2, results.size());
+        assertEquals(NotificationStatus.SUCCEEDED, results.get(0).getStatus());
+        assertEquals(NotificationStatus.SUCCEEDED, results.get(1).getStatus());
+        verify(mailSender, times(1)).send(any(SimpleMailMessage[].class));
+        verify(bodyStore, times(1)).storeAll(any());
+        verify(notificationRepository, times(1)).saveAll(any());
+        verify(notificationRepository, never()).save(any());
+    }
+
+    @Test
+    void sendNotificationEmails_shouldReportPerItemResults() {
+        UUID enabledUser = UUID.randomUUID();
+        UUID disabledUser = UUID.randomUUID();
+        List<NotificationRequest> requests = List.of(
+                new NotificationRequest(enabledUser, "ok", "body"),
+                new NotificationRequest(disabledUser, "rejected", "body"),
+                new NotificationRequest(enabledUser, "bounced", "body"));
+
+        EmailService spyService = Mockito.spy(emailService);
+        Mockito.doReturn(new NotificationPreference(enabledUser, true, "stoyan.stoyanov.kz@mail.bg"))
+                .when(spyService).getPreferenceByUserId(enabledUser);
+        Mockito.doReturn(new NotificationPreference(disabledUser, false, "x@mail.bg"))
+                .when(spyService).getPreferenceByUserId(disabledUser);
+
+        // Senders key failures by the message instance they were handed.
+        doAnswer(invocation -> {
+            SimpleMailMessage bounced = Arrays.stream(invocation.getArguments())
+                    .map(SimpleMailMessage.class::cast)
+                    .filter(message -> "bounced".equals(message.getSubject()))
+                    .findFirst()
+                    .orElseThrow();
+            throw new MailSendException(Map.of(bounced, new RuntimeException("Mailbox unavailable")));
+        }).when(mailSender).send(any(SimpleMailMessage[].class));
+        when(notificationRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<BatchItemResult> results = spyService.sendNotificationEmails(requests);
+
+        assertEquals(NotificationStatus.SUCCEEDED, results.get(0).getStatus());
+        assertNull(results.get(1).getStatus());
+        assertNotNull(results.get(1).getError());
+        assertEquals(NotificationStatus.RETRYING, results.get(2).getStatus());
+        assertEquals(2, results.get(2).getIndex());
+    }
+
+
+    @Test
+    void getStatusPage_shouldReturnNextCursor_whenMoreRowsThanLimit() {
+        NotificationResponse first = mock(NotificationResponse.class);
+        NotificationResponse second = mock(NotificationResponse.class);
+        NotificationResponse third = mock(NotificationResponse.class);
+        UUID secondId = UUID.randomUUID();
+        LocalDateTime secondCreatedOn = LocalDateTime.now();
+        when(second.getId()).thenReturn(secondId);
+        when(second.getCreatedOn()).thenReturn(secondCreatedOn);
+        when(notificationRepository.findSummaries(any(Limit.class))).thenReturn(List.of(first, second, third));
+
+        StatusPage page = emailService.getStatusPage(null, 2);
+
+        assertEquals(List.of(first, second), page.getItems());
+        StatusCursor cursor = StatusCursor.decode(page.getNextCursor());
+        assertEquals(secondId, cursor.getId());
+        assertEquals(secondCreatedOn, cursor.getCreatedOn());
+    }
+
+    @Test
+    void getStatusPage_shouldContinueAfterCursor_andReturnNoCursorOnLastPage() {
+        UUID lastSeenId = UUID.randomUUID();
+        LocalDateTime lastSeenCreatedOn = LocalDateTime.now();
+        String cursor = new StatusCursor(lastSeenCreatedOn, lastSeenId).encode();
+        List<NotificationResponse> expected = List.of(mock(NotificationResponse.class));
+        when(notificationRepository.findSummariesAfter(eq(lastSeenCreatedOn), eq(lastSeenId), any(Limit.class))).thenReturn(expected);
+
+        StatusPage page = emailService.getStatusPage(cursor, 2);
+
+        assertEquals(expected, page.getItems());
+        assertNull(page.getNextCursor());
+        verify(notificationRepository, never()).findSummaries(any());
+    }
+
+    @Test
+    void getUserStatusPage_shouldServeRepeatedPollsFromCache() {
+        UUID userId = UUID.randomUUID();
+        List<NotificationResponse> recent = List.of(mock(NotificationResponse.class));
+        when(notificationRepository.findUserSummaries(userId, Limit.of(21))).thenReturn(recent);
+
+        emailService.getUserStatusPage(userId, null, 10);
+        StatusPage page = emailService.getUserStatusPage(userId, null, 10);
+
+        assertEquals(recent, page.getItems());
+        assertNull(page.getNextCursor());
+        verify(notificationRepository, times(1)).findUserSummaries(any(), any());
+    }
+
+    @Test
+    void getUserStatusPage_shouldShowSentNotificationWithoutReloading() {
+        UUID userId = UUID.randomUUID();
+        when(notificationRepository.findUserSummaries(userId, Limit.of(21))).thenReturn(List.of());
+        when(notificationRepository.save(any())).thenAnswer(invocation -> {
+            Notification notification = invocation.getArgument(0);
+            notification.setId(UUID.randomUUID());
+            notification.setCreatedOn(LocalDateTime.now());
+            return notification;
+        });
+        emailService.getUserStatusPage(userId, null, 10);
+
+        Notification sent = emailService.sendNotificationEmail(new NotificationRequest(userId, "subj", "body"));
+        StatusPage page = emailService.getUserStatusPage(userId, null, 10);
+
+        assertEquals(1, page.getItems().size());
+        assertEquals(sent.getId(), page.getItems().get(0).getId());
+        assertEquals(NotificationStatus.SUCCEEDED, page.getItems().get(0).getStatus());
+        verify(notificationRepository, times(1)).findUserSummaries(any(), any());
+    }
+
+    @Test
+    void sendNotificationEmail_shouldOnlySave_whenSendAtIsInTheFuture() {
+        LocalDateTime sendAt = LocalDateTime.now().plusDays(1);
+        NotificationRequest request = NotificationRequest.builder()
+                .userId(UUID.randomUUID())
+                .subject("Reminder")
+                .body("Your trial ends tomorrow.")
+                .sendAt(sendAt)
+                .build();
+        when(notificationRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Notification result = emailService.sendNotificationEmail(request);
+
+        assertEquals(NotificationStatus.SCHEDULED, result.getStatus());
+        assertEquals(sendAt, result.getSendAt());
+        assertEquals(0, result.getAttempts());
+        verifyNoInteractions(mailSender);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void queueNotificationEmail_shouldSendCoalescedNotificationsAsOneDigest() {
+        UUID userId = UUID.randomUUID();
+        UUID digestId = UUID.randomUUID();
+        when(digestCoalescer.isEnabled()).thenReturn(true);
+        when(digestCoalescer.getWindow()).thenReturn(Duration.ofSeconds(30));
+        when(notificationRepository.save(any())).thenAnswer(invocation -> {
+            Notification notification = invocation.getArgument(0);
+            if (notification.getId() == null) {
+                notification.setId(notification.getSubject().startsWith("You have") ? digestId : UUID.randomUUID());
+            }
+            return notification;
+        });
+        ArgumentCaptor<BiConsumer<String, List<Notification>>> onClose = ArgumentCaptor.forClass(BiConsumer.class);
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        when(channelDispatcher.offer(eq(NotificationType.EMAIL), task.capture())).thenReturn(true);
+
+        Notification first = emailService.queueNotificationEmail(NotificationRequest.builder()
+                .userId(userId).subject("Build failed").body("main is red").digest(true).build());
+        Notification second = emailService.queueNotificationEmail(NotificationRequest.builder()
+                .userId(userId).subject("Build fixed").body("main is green").digest(true).build());
+        verify(digestCoalescer, times(2)).add(any(), any(), onClose.capture());
+        verifyNoInteractions(mailSender);
+        when(notificationRepository.findIdsWithStatus(List.of(first.getId(), second.getId()), NotificationStatus.PENDING))
+                .thenReturn(List.of(first.getId(), second.getId()));
+
+        onClose.getValue().accept("user@mail.bg", List.of(first, second));
+        task.getValue().run();
+
+        ArgumentCaptor<SimpleMailMessage> sent = ArgumentCaptor.forClass(SimpleMailMessage.class);
+        verify(mailSender, times(1)).send(sent.capture());
+        assertEquals("You have 2 new notifications", sent.getValue().getSubject());
+        assertTrue(sent.getValue().getText().contains("main is red"));
+        assertTrue(sent.getValue().getText().contains("main is green"));
+        verify(notificationRepository).markDigested(Set.of(first.getId(), second.getId()), digestId,
+                NotificationStatus.PENDING, NotificationStatus.DIGESTED);
+        verify(notificationRepository, never()).saveAll(any());
+        assertEquals(NotificationStatus.DIGESTED, first.getStatus());
+        assertEquals(digestId, first.getDigestId());
+        assertEquals(digestId, second.getDigestId());
+        assertNull(second.getNextAttemptAt());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void queueNotificationEmail_shouldLeaveClearedNotificationsOutOfDigest() {
+        UUID userId = UUID.randomUUID();
+        when(digestCoalescer.isEnabled()).thenReturn(true);
+        when(digestCoalescer.getWindow()).thenReturn(Duration.ofSeconds(30));
+        assignIdsOnSave();
+        ArgumentCaptor<BiConsumer<String, List<Notification>>> onClose = ArgumentCaptor.forClass(BiConsumer.class);
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        when(channelDispatcher.offer(eq(NotificationType.EMAIL), task.capture())).thenReturn(true);
+
+        Notification cleared = emailService.queueNotificationEmail(NotificationRequest.builder()
+                .userId(userId).subject("Build failed").body("main is red").digest(true).build());
+        Notification kept = emailService.queueNotificationEmail(NotificationRequest.builder()
+                .userId(userId).subject("Build fixed").body("main is green").digest(true).build());
+        verify(digestCoalescer, times(2)).add(any(), any(), onClose.capture());
+        when(notificationRepository.findIdsWithStatus(List.of(cleared.getId(), kept.getId()), NotificationStatus.PENDING))
+                .thenReturn(List.of(kept.getId()));
+
+        onClose.getValue().accept("user@mail.bg", List.of(cleared, kept));
+        task.getValue().run();
+
+        ArgumentCaptor<SimpleMailMessage> sent = ArgumentCaptor.forClass(SimpleMailMessage.class);
+        verify(mailSender, times(1)).send(sent.capture());
+        assertEquals("Build fixed", sent.getValue().getSubject());
+        assertEquals(NotificationStatus.PENDING, cleared.getStatus());
+        assertEquals(NotificationStatus.SUCCEEDED, kept.getStatus());
+        verify(notificationRepository, never()).markDigested(any(), any(), any(), any());
+    }
+
+    @Test
+    void sendNotificationEmail_shouldPublishStatusEvent() {
+        UUID userId = UUID.randomUUID();
+        UUID notificationId = UUID.randomUUID();
+        when(notificationRepository.save(any())).thenAnswer(invocation -> {
+            Notification notification = invocation.getArgument(0);
+            notification.setId(notificationId);
+            return notification;
+        });
+
+        emailService.sendNotificationEmail(new NotificationRequest(userId, "subj", "body"));
+
+        ArgumentCaptor<NotificationStatusEvent> event = ArgumentCaptor.forClass(NotificationStatusEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(notificationId, event.getValue().getNotificationId());
+        assertEquals(userId, event.getValue().getUserId());
+        assertEquals(NotificationStatus.SUCCEEDED, event.getValue().getStatus());
+    }
+
+    @Test
+    void getUserStatusPage_shouldReload_afterClearNotifications() {
+        UUID userId = UUID.randomUUID();
+        when(notificationRepository.findUserSummaries(userId, Limit.of(21)))
+                .thenReturn(List.of(mock(NotificationResponse.class)), List.of());
+        emailService.getUserStatusPage(userId, null, 10);
+
+        emailService.clearNotifications(userId);
+
+        assertTrue(emailService.getUserStatusPage(userId, null, 10).getItems().isEmpty());
+    }
+
+    @Test
+    void getUserStatusPage_shouldQueryDatabase_forLaterPages() {
+        UUID userId = UUID.randomUUID();
+        UUID lastSeenId = UUID.randomUUID();
+        LocalDateTime lastSeenCreatedOn = LocalDateTime.now();
+        String cursor = new StatusCursor(lastSeenCreatedOn, lastSeenId).encode();
+        when(notificationRepository.findUserSummariesAfter(userId, lastSeenCreatedOn, lastSeenId, Limit.of(11))).thenReturn(List.of());
+
+        assertTrue(emailService.getUserStatusPage(userId, cursor, 10).getItems().isEmpty());
+        verify(notificationRepository, never()).findUserSummaries(any(), any());
+    }
+
+    @Test
+    void getStatusPage_shouldRejectMalformedCursor() {
+        assertThrows(InvalidCursorException.class, () -> emailService.getStatusPage("not-a-cursor", 10));
+        verifyNoInteractions(notificationRepository);
     }
 
 
@@ -125,21 +822,27 @@ public class EmailServiceUnitTest {
 
 
     @Test
-    void clearNotifications_shouldMarkNotificationsAsDeleted() {
+    void clearNotifications_shouldSoftDeleteWithSingleUpdate() {
         UUID userId = UUID.randomUUID();
-        Notification notificationFirst = Notification.builder().deleted(false).build();
-        Notification notificationSecond = Notification.builder().deleted(false).build();
-        List<Notification> list = List.of(notificationFirst, notificationSecond);
+        when(notificationRepository.softDeleteAllByUserId(eq(userId), any(LocalDateTime.class))).thenReturn(2);
 
-        EmailService spyService = Mockito.spy(emailService);
-        doReturn(list).when(spyService).getNotificationUser(userId);
+        int cleared = emailService.clearNotifications(userId);
 
-        spyService.clearNotifications(userId);
+        assertEquals(2, cleared);
+        verify(notificationRepository, times(1)).softDeleteAllByUserId(eq(userId), any(LocalDateTime.class));
+        verify(historyCutoffRepository).save(argThat(cutoff -> cutoff.getUserId().equals(userId)));
+        verify(notificationRepository, never()).findAllByUserIdAndDeletedIsFalse(any());
+        verify(notificationRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void clearNotificationsAsync_shouldDelegateToCleanupService() {
+        UUID userId = UUID.randomUUID();
 
-        assertTrue(notificationFirst.isDeleted());
-        assertTrue(notificationSecond.isDeleted());
-        verify(spyService, times(1)).getNotificationUser(userId);
-        verify(notificationRepository, times(1)).saveAll(list);
+        emailService.clearNotificationsAsync(userId);
+
+        verify(notificationCleanupService, times(1)).clearNotificationsInBackground(eq(userId), any(LocalDateTime.class), any(Runnable.class));
+        verifyNoInteractions(notificationRepository);
     }
 
 
@@ -165,10 +868,28 @@ public class EmailServiceUnitTest {
         assertEquals("stoyan.stoyanov.kz@mail.bg", notificationPreference.getContactInfo());
     }
 
+    @Test
+    void getPreferenceByUserId_shouldThrow_whenProviderHasNoPreference() {
+        UUID userId = UUID.randomUUID();
+        doReturn(Optional.empty()).when(preferenceService).getPreference(userId);
+
+        assertThrows(IllegalArgumentException.class, () -> emailService.getPreferenceByUserId(userId));
+    }
+
     @Test
     void getPreferenceByUserId_shouldNotInteractWithMailSenderOrRepository() {
         UUID userId = UUID.randomUUID();
         emailService.getPreferenceByUserId(userId);
-        verifyNoInteractions(mailSender, notificationRepository);
+        verifyNoInteractions(mailSender, notificationRepository, channelDispatcher);
+    }
+
+    private void assignIdsOnSave() {
+        when(notificationRepository.save(any())).thenAnswer(invocation -> {
+            Notification notification = invocation.getArgument(0);
+            if (notification.getId() == null) {
+                notification.setId(UUID.randomUUID());
+            }
+            return notification;
+        });
     }
 }
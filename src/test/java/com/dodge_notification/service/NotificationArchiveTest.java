@@ -0,0 +1,84 @@
+package com.dodge_notification.service;
+
+import com.dodge_notification.dto.ArchivedNotification;
+import com.dodge_notification.model.NotificationStatus;
+import com.dodge_notification.model.NotificationType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NotificationArchiveTest {
+
+    @TempDir
+    private Path directory;
+
+    private NotificationArchive archive;
+
+    @BeforeEach
+    void setUp() {
+        archive = new NotificationArchive(new ObjectMapper().findAndRegisterModules(), directory.toString(), 100);
+    }
+
+    @Test
+    void findByUserId_shouldReadBackWhatWasWritten() {
+        UUID userId = UUID.randomUUID();
+        ArchivedNotification notification = archived(userId, "Your order has shipped");
+
+        Path segment = archive.write(YearMonth.of(2024, 3), List.of(notification, archived(UUID.randomUUID(), "Other user")));
+
+        assertTrue(segment.getFileName().toString().startsWith("notifications-2024-03-"));
+        assertEquals(List.of(notification), archive.findByUserId(userId));
+    }
+
+    @Test
+    void findByUserId_shouldReturnRowArchivedTwiceOnce() {
+        UUID userId = UUID.randomUUID();
+        ArchivedNotification notification = archived(userId, "Your order has shipped");
+
+        archive.write(YearMonth.of(2024, 3), List.of(notification));
+        archive.write(YearMonth.of(2024, 3), List.of(notification));
+
+        assertEquals(1, archive.findByUserId(userId).size());
+    }
+
+    @Test
+    void findByUserId_shouldSkipSegmentsWithoutTheUser() throws Exception {
+        UUID userId = UUID.randomUUID();
+        Path segment = archive.write(YearMonth.of(2024, 3), List.of(archived(UUID.randomUUID(), "Other user")));
+        // The index says the user is not there, so the (now unreadable) segment is never opened.
+        Files.write(segment, new byte[]{1, 2, 3});
+
+        assertTrue(archive.findByUserId(userId).isEmpty());
+    }
+
+    @Test
+    void findByUserId_shouldReturnEmpty_whenNothingWasArchived() {
+        assertTrue(new NotificationArchive(new ObjectMapper(), directory.resolve("missing").toString(), 100)
+                .findByUserId(UUID.randomUUID()).isEmpty());
+    }
+
+    private static ArchivedNotification archived(UUID userId, String subject) {
+        return ArchivedNotification.builder()
+                .id(UUID.randomUUID())
+                .userId(userId)
+                .subject(subject)
+                .body("It should arrive within three days.")
+                .variables(Map.of("order", "42"))
+                .createdOn(LocalDateTime.of(2024, 3, 14, 12, 0))
+                .type(NotificationType.EMAIL)
+                .status(NotificationStatus.SUCCEEDED)
+                .attempts(1)
+                .build();
+    }
+}
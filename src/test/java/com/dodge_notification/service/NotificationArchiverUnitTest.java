@@ -0,0 +1,99 @@
+package com.dodge_notification.service;
+
+import com.dodge_notification.dto.ArchivedNotification;
+import com.dodge_notification.model.Notification;
+import com.dodge_notification.model.NotificationStatus;
+import com.dodge_notification.model.NotificationType;
+import com.dodge_notification.repository.NotificationRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class NotificationArchiverUnitTest {
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @Mock
+    private NotificationArchive notificationArchive;
+
+    @Mock
+    private BodyStore bodyStore;
+
+    private NotificationArchiver archiver(boolean enabled) {
+        return new NotificationArchiver(notificationRepository, notificationArchive, bodyStore,
+                new PartitionLeaseManager(null, null, null, null, null, false, "", Duration.ofSeconds(15), 5000, 500),
+                enabled, 90, 10);
+    }
+
+    @Test
+    void archiveOldNotifications_shouldWriteOneSegmentPerMonthBeforeDeleting() {
+        Notification january = notification(LocalDateTime.of(2024, 1, 10, 12, 0), "hash-1");
+        Notification march = notification(LocalDateTime.of(2024, 3, 5, 8, 0), null);
+        when(notificationRepository.findArchivable(anyCollection(), any(), anyCollection(), any()))
+                .thenReturn(List.of(march, january));
+        when(bodyStore.load("hash-1")).thenReturn("January body");
+
+        archiver(true).archiveOldNotifications();
+
+        ArgumentCaptor<Collection<ArchivedNotification>> januarySegment = ArgumentCaptor.forClass(Collection.class);
+        InOrder inOrder = inOrder(notificationArchive, notificationRepository);
+        inOrder.verify(notificationArchive).write(eq(YearMonth.of(2024, 1)), januarySegment.capture());
+        inOrder.verify(notificationArchive).write(eq(YearMonth.of(2024, 3)), anyCollection());
+        inOrder.verify(notificationRepository).deleteAllByIdInBatch(List.of(march.getId(), january.getId()));
+
+        ArchivedNotification archived = januarySegment.getValue().iterator().next();
+        assertEquals(january.getId(), archived.getId());
+        assertEquals("January body", archived.getBody());
+        assertEquals(NotificationStatus.SUCCEEDED, archived.getStatus());
+    }
+
+    @Test
+    void archiveOldNotifications_shouldKeepRows_whenSegmentCannotBeWritten() {
+        when(notificationRepository.findArchivable(anyCollection(), any(), anyCollection(), any()))
+                .thenReturn(List.of(notification(LocalDateTime.of(2024, 1, 10, 12, 0), null)));
+        when(notificationArchive.write(any(), anyCollection()))
+                .thenThrow(new UncheckedIOException(new IOException("disk full")));
+
+        assertThrows(UncheckedIOException.class, () -> archiver(true).archiveOldNotifications());
+
+        verify(notificationRepository, never()).deleteAllByIdInBatch(any());
+    }
+
+    @Test
+    void archiveOldNotifications_shouldDoNothing_whenDisabled() {
+        archiver(false).archiveOldNotifications();
+
+        verifyNoInteractions(notificationRepository, notificationArchive, bodyStore);
+    }
+
+    private static Notification notification(LocalDateTime createdOn, String bodyHash) {
+        return Notification.builder()
+                .id(UUID.randomUUID())
+                .userId(UUID.randomUUID())
+                .subject("Subject")
+                .bodyHash(bodyHash)
+                .createdOn(createdOn)
+                .type(NotificationType.EMAIL)
+                .status(NotificationStatus.SUCCEEDED)
+                .build();
+    }
+}
@@ -0,0 +1,86 @@
+package com.dodge_notification.service;
+
+import com.dodge_notification.repository.NotificationBodyRepository;
+import com.dodge_notification.repository.NotificationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class NotificationCleanupServiceUnitTest {
+
+    private static final int CHUNK_SIZE = 3;
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @Mock
+    private NotificationBodyRepository notificationBodyRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private NotificationCleanupService cleanupService;
+
+    @BeforeEach
+    void setUp() {
+        cleanupService = new NotificationCleanupService(notificationRepository, notificationBodyRepository,
+                transactionTemplate, Runnable::run,
+                new PartitionLeaseManager(null, null, null, null, null, false, "", Duration.ofSeconds(15), 5000, 500),
+                CHUNK_SIZE, 30);
+
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(mock(TransactionStatus.class)));
+    }
+
+    @Test
+    void clearNotificationsInBackground_shouldClearInChunksAndThenReportBack() {
+        UUID userId = UUID.randomUUID();
+        LocalDateTime clearedAt = LocalDateTime.now();
+        when(notificationRepository.findActiveIdsByUserId(userId, clearedAt, Limit.of(CHUNK_SIZE)))
+                .thenReturn(ids(CHUNK_SIZE), ids(1));
+        when(notificationRepository.softDeleteAllByIdIn(anyList(), any()))
+                .thenAnswer(invocation -> invocation.<List<UUID>>getArgument(0).size());
+        AtomicBoolean cleared = new AtomicBoolean();
+
+        cleanupService.clearNotificationsInBackground(userId, clearedAt, () -> cleared.set(true));
+
+        verify(notificationRepository, times(2)).softDeleteAllByIdIn(anyList(), any());
+        assertTrue(cleared.get());
+    }
+
+    @Test
+    void purgeDeletedNotifications_shouldStampLegacyRowsAndDeleteInChunks() {
+        when(notificationRepository.findPurgeableIds(any(), any(), eq(Limit.of(CHUNK_SIZE))))
+                .thenReturn(ids(CHUNK_SIZE), ids(2));
+
+        cleanupService.purgeDeletedNotifications();
+
+        verify(notificationRepository).stampMissingDeletedOn(any(), any());
+        verify(notificationRepository, times(2)).deleteAllByIdInBatch(anyList());
+        verify(notificationBodyRepository).deleteUnreferencedBefore(any());
+    }
+
+    private static List<UUID> ids(int count) {
+        return IntStream.range(0, count).mapToObj(i -> UUID.randomUUID()).toList();
+    }
+}
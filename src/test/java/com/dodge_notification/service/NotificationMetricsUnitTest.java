@@ -0,0 +1,62 @@
+package com.dodge_notification.service;
+
+import com.dodge_notification.exception.DeliveryTimeoutException;
+import com.dodge_notification.model.NotificationStatus;
+import com.dodge_notification.model.NotificationType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NotificationMetricsUnitTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private NotificationMetrics notificationMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        notificationMetrics = new NotificationMetrics(meterRegistry, ObservationRegistry.NOOP);
+    }
+
+    @Test
+    void recordRequest_shouldCountPerTypeAndMode() {
+        notificationMetrics.recordRequest(NotificationType.EMAIL, "sync");
+        notificationMetrics.recordRequest(NotificationType.EMAIL, "sync");
+        notificationMetrics.recordRequest(NotificationType.EMAIL, "async");
+
+        assertEquals(2.0, meterRegistry.get("notification.requests")
+                .tag("type", "EMAIL").tag("mode", "sync").counter().count());
+        assertEquals(1.0, meterRegistry.get("notification.requests")
+                .tag("type", "EMAIL").tag("mode", "async").counter().count());
+    }
+
+    @Test
+    void recordRequest_shouldReuseRegisteredCounter() {
+        notificationMetrics.recordRequest(NotificationType.EMAIL, "batch");
+        Counter counter = meterRegistry.get("notification.requests").tag("mode", "batch").counter();
+
+        notificationMetrics.recordRequest(NotificationType.EMAIL, "batch");
+
+        assertSame(counter, meterRegistry.get("notification.requests").tag("mode", "batch").counter());
+        assertEquals(1, meterRegistry.get("notification.requests").counters().size());
+        assertEquals(2.0, counter.count());
+    }
+
+    @Test
+    void recordOutcome_shouldTagStatusAndCause() {
+        RuntimeException timeout = new DeliveryTimeoutException(NotificationType.EMAIL, 100);
+
+        notificationMetrics.recordOutcome(NotificationType.EMAIL, NotificationStatus.SUCCEEDED, null);
+        notificationMetrics.recordOutcome(NotificationType.EMAIL, NotificationStatus.RETRYING, timeout);
+        notificationMetrics.recordOutcome(NotificationType.EMAIL, NotificationStatus.RETRYING, timeout);
+
+        assertEquals(1.0, meterRegistry.get("notification.deliveries")
+                .tag("status", "SUCCEEDED").tag("cause", "none").counter().count());
+        assertEquals(2.0, meterRegistry.get("notification.deliveries")
+                .tag("status", "RETRYING").tag("cause", "DeliveryTimeoutException").counter().count());
+    }
+}
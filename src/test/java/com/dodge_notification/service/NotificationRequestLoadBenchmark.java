@@ -0,0 +1,144 @@
+package com.dodge_notification.service;
+
+import com.dodge_notification.DodgeNotificationApplication;
+import com.dodge_notification.mail.LocalSmtpServer;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Request-level load test: boots the application on H2 against a {@link LocalSmtpServer} with a fixed
+ * handshake delay and drives {@code POST /api/emails/notifyAdvanced} from {@link #CLIENTS} concurrent
+ * clients, once with platform request threads and once with virtual threads. Both runs share the same
+ * concurrency limits (request threads, channel workers, JDBC pool), so only the thread model differs.
+ * Opt-in: {@code mvn test -Pjava21 -Dtest=NotificationRequestLoadBenchmark -Dbenchmark=true}.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class NotificationRequestLoadBenchmark {
+
+    private static final int REQUESTS = 2_000;
+    private static final int CLIENTS = 32;
+    private static final long SMTP_LATENCY_MILLIS = 50;
+
+    private LocalSmtpServer smtpServer;
+    private ConfigurableApplicationContext context;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        smtpServer = new LocalSmtpServer(SMTP_LATENCY_MILLIS);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (context != null) {
+            context.close();
+        }
+        smtpServer.close();
+    }
+
+    @Test
+    void platformThreads() throws Exception {
+        run("platform", false);
+    }
+
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    void virtualThreads() throws Exception {
+        run("virtual", true);
+    }
+
+    private void run(String mode, boolean virtualThreads) throws Exception {
+        context = new SpringApplicationBuilder(DodgeNotificationApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "server.tomcat.threads.max=" + CLIENTS,
+                        "spring.datasource.url=jdbc:h2:mem:load-" + mode + ";MODE=MYSQL;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.driverClassName=org.h2.Driver",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.datasource.hikari.maximum-pool-size=20",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "spring.mail.host=localhost",
+                        "spring.mail.port=" + smtpServer.getPort(),
+                        "spring.mail.username=",
+                        "spring.mail.password=",
+                        "spring.mail.properties.mail.smtp.auth=false",
+                        "spring.mail.properties.mail.smtp.starttls.enable=false",
+                        "notification.mail.pool.enabled=false",
+                        "notification.delivery.workers=" + CLIENTS,
+                        "notification.delivery.queue-capacity=" + REQUESTS,
+                        "notification.rate-limit.enabled=false",
+                        "notification.retry.poll-interval-ms=3600000",
+                        "notification.purge.initial-delay-ms=3600000",
+                        "logging.level.root=WARN")
+                .run();
+        String port = context.getEnvironment().getProperty("local.server.port");
+        URI uri = URI.create("http://localhost:" + port + "/api/emails/notifyAdvanced");
+
+        HttpClient httpClient = HttpClient.newBuilder().executor(Executors.newFixedThreadPool(CLIENTS)).build();
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        long[] latencies = new long[REQUESTS];
+
+        long start = System.nanoTime();
+        for (int c = 0; c < CLIENTS; c++) {
+            clients.execute(() -> {
+                for (int index = next.getAndIncrement(); index < REQUESTS; index = next.getAndIncrement()) {
+                    HttpRequest request = HttpRequest.newBuilder(uri)
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(
+                                    "{\"userId\":\"%s\",\"subject\":\"Load %d\",\"body\":\"Body %d\"}"
+                                            .formatted(UUID.randomUUID(), index, index)))
+                            .build();
+                    long sentAt = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            failures.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    }
+                    latencies[index] = System.nanoTime() - sentAt;
+                }
+            });
+        }
+        clients.shutdown();
+        assertTrue(clients.awaitTermination(10, TimeUnit.MINUTES));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        Arrays.sort(latencies);
+        log.info("%s: %d requests from %d clients in %d ms (%.0f req/s), p50 %d ms, p99 %d ms, %d failures".formatted(
+                mode, REQUESTS, CLIENTS, elapsedMillis, REQUESTS * 1000.0 / elapsedMillis,
+                TimeUnit.NANOSECONDS.toMillis(latencies[REQUESTS / 2]),
+                TimeUnit.NANOSECONDS.toMillis(latencies[(int) (REQUESTS * 0.99)]),
+                failures.get()));
+        assertEquals(0, failures.get());
+        assertEquals(REQUESTS, smtpServer.getMessageCount());
+    }
+}
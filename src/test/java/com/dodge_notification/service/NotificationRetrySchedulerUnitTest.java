@@ -0,0 +1,81 @@
+package com.dodge_notification.service;
+
+import com.dodge_notification.channel.ChannelDispatcher;
+import com.dodge_notification.model.Notification;
+import com.dodge_notification.model.NotificationStatus;
+import com.dodge_notification.model.NotificationType;
+import com.dodge_notification.repository.NotificationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class NotificationRetrySchedulerUnitTest {
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ChannelDispatcher channelDispatcher;
+
+    @Mock
+    private EmailService emailService;
+
+    private NotificationRetryScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        RetryPolicy retryPolicy = new RetryPolicy(5, Duration.ofSeconds(30), Duration.ofHours(1), Duration.ofMinutes(5));
+        scheduler = new NotificationRetryScheduler(
+                notificationRepository, transactionTemplate, channelDispatcher, emailService, retryPolicy,
+                new PartitionLeaseManager(null, null, null, null, null, false, "", Duration.ofSeconds(15), 5000, 500), 10);
+
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(mock(TransactionStatus.class)));
+    }
+
+    @Test
+    void retryDueNotifications_shouldLeaseClaimedRowsAndHandThemToWorkers() {
+        Notification due = Notification.builder()
+                .type(NotificationType.EMAIL)
+                .status(NotificationStatus.RETRYING)
+                .attempts(1)
+                .nextAttemptAt(LocalDateTime.now().minusSeconds(1))
+                .build();
+        when(notificationRepository.findDueForUpdate(any(), any(), any(), any())).thenReturn(List.of(due));
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        when(channelDispatcher.offer(eq(NotificationType.EMAIL), task.capture())).thenReturn(true);
+
+        scheduler.retryDueNotifications();
+
+        assertTrue(due.getNextAttemptAt().isAfter(LocalDateTime.now().plusMinutes(4)));
+        task.getValue().run();
+        verify(emailService, times(1)).redeliver(due);
+    }
+
+    @Test
+    void retryDueNotifications_shouldDoNothing_whenNothingIsDue() {
+        when(notificationRepository.findDueForUpdate(any(), any(), any(), any())).thenReturn(List.of());
+
+        scheduler.retryDueNotifications();
+
+        verifyNoInteractions(channelDispatcher, emailService);
+    }
+}
@@ -0,0 +1,147 @@
+package com.dodge_notification.service;
+
+import com.dodge_notification.dto.StatsBucket;
+import com.dodge_notification.model.Notification;
+import com.dodge_notification.model.NotificationStat;
+import com.dodge_notification.model.NotificationStatus;
+import com.dodge_notification.model.NotificationType;
+import com.dodge_notification.model.StatsGranularity;
+import com.dodge_notification.repository.NotificationStatRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class NotificationStatsUnitTest {
+
+    @Mock
+    private NotificationStatRepository statRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private NotificationStats notificationStats;
+
+    @BeforeEach
+    void setUp() {
+        notificationStats = new NotificationStats(statRepository, new TransactionTemplate(transactionManager), true, 48, 90);
+    }
+
+    @Test
+    void getStats_shouldAddUnflushedCountsToStoredOnes() {
+        UUID userId = UUID.randomUUID();
+        LocalDateTime hour = StatsGranularity.HOUR.bucketOf(LocalDateTime.now());
+        when(statRepository.findTotals(StatsGranularity.HOUR, hour, hour.plusHours(1))).thenReturn(List.of(NotificationStat.builder()
+                .granularity(StatsGranularity.HOUR)
+                .bucketStart(hour)
+                .type(NotificationType.EMAIL)
+                .status(NotificationStatus.SUCCEEDED)
+                .count(40)
+                .build()));
+
+        notificationStats.record(notification(userId, NotificationStatus.SUCCEEDED));
+        notificationStats.record(notification(userId, NotificationStatus.SUCCEEDED));
+
+        List<StatsBucket> stats = notificationStats.getStats(StatsGranularity.HOUR, hour, hour.plusHours(1), null);
+
+        assertEquals(1, stats.size());
+        assertEquals(42, stats.get(0).getCount());
+    }
+
+    @Test
+    void record_shouldMoveCountToNewStatus_whenStatusChanges() {
+        UUID userId = UUID.randomUUID();
+        LocalDateTime createdOn = LocalDateTime.now().minusDays(1);
+        LocalDateTime day = StatsGranularity.DAY.bucketOf(createdOn);
+        Notification notification = notification(userId, NotificationStatus.PENDING);
+        notification.setCreatedOn(createdOn);
+
+        notificationStats.record(notification);
+        notification.setStatus(NotificationStatus.SUCCEEDED);
+        notificationStats.record(notification);
+        notificationStats.record(notification);
+
+        List<StatsBucket> stats = notificationStats.getStats(StatsGranularity.DAY, day, day.plusDays(1), userId);
+
+        assertEquals(1, stats.size());
+        assertEquals(NotificationStatus.SUCCEEDED, stats.get(0).getStatus());
+        assertEquals(1, stats.get(0).getCount());
+    }
+
+    @Test
+    void record_shouldDecrementStoredCount_whenLoadedNotificationChangesStatus() {
+        UUID userId = UUID.randomUUID();
+        Notification notification = notification(userId, NotificationStatus.RETRYING);
+        notification.setCountedStatus(NotificationStatus.RETRYING);
+        notification.setStatus(NotificationStatus.DEAD);
+
+        notificationStats.record(notification);
+        notificationStats.flush();
+
+        verify(statRepository, times(3)).increment(contains("|*|EMAIL|RETRYING"), eq(-1L));
+        verify(statRepository, times(3)).increment(contains("|*|EMAIL|DEAD"), eq(1L));
+    }
+
+    @Test
+    void flush_shouldInsertMissingBucketsAndResetCounters() {
+        UUID userId = UUID.randomUUID();
+        LocalDateTime day = StatsGranularity.DAY.bucketOf(LocalDateTime.now());
+        notificationStats.record(notification(userId, NotificationStatus.FAILED));
+
+        notificationStats.flush();
+
+        // One row per granularity, for the user and for the totals.
+        ArgumentCaptor<NotificationStat> inserted = ArgumentCaptor.forClass(NotificationStat.class);
+        verify(statRepository, times(6)).save(inserted.capture());
+        assertTrue(inserted.getAllValues().stream().allMatch(stat -> stat.getCount() == 1));
+        assertTrue(notificationStats.getStats(StatsGranularity.DAY, day, day.plusDays(1), userId).isEmpty());
+    }
+
+    @Test
+    void flush_shouldKeepCounts_whenWriteFails() {
+        UUID userId = UUID.randomUUID();
+        LocalDateTime day = StatsGranularity.DAY.bucketOf(LocalDateTime.now());
+        when(statRepository.increment(anyString(), anyLong())).thenThrow(new RuntimeException("Deadlock"));
+        notificationStats.record(notification(userId, NotificationStatus.SUCCEEDED));
+
+        notificationStats.flush();
+
+        assertEquals(1, notificationStats.getStats(StatsGranularity.DAY, day, day.plusDays(1), userId).get(0).getCount());
+        verify(statRepository, never()).save(any());
+    }
+
+    @Test
+    void getStats_shouldRejectEmptyRange() {
+        LocalDateTime now = LocalDateTime.now();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> notificationStats.getStats(StatsGranularity.HOUR, now, now, null));
+    }
+
+    private static Notification notification(UUID userId, NotificationStatus status) {
+        return Notification.builder()
+                .id(UUID.randomUUID())
+                .userId(userId)
+                .subject("subject")
+                .type(NotificationType.EMAIL)
+                .status(status)
+                .build();
+    }
+}
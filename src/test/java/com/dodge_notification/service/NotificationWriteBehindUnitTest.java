@@ -0,0 +1,165 @@
+package com.dodge_notification.service;
+
+import com.dodge_notification.model.Notification;
+import com.dodge_notification.model.NotificationStatus;
+import com.dodge_notification.model.NotificationType;
+import com.dodge_notification.repository.NotificationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class NotificationWriteBehindUnitTest {
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @Mock
+    private BodyStore bodyStore;
+
+    private NotificationWriteBehind writeBehind;
+
+    @BeforeEach
+    void setUp() {
+        writeBehind = new NotificationWriteBehind(notificationRepository, bodyStore,
+                new NotificationMetrics(new SimpleMeterRegistry(), ObservationRegistry.NOOP),
+                true, 3, 100, 60_000, 60_000, Runnable::run);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void save_shouldAssignIdsAndWriteFullBatches() {
+        Notification first = writeBehind.save(notification());
+        first.setStatus(NotificationStatus.SUCCEEDED);
+        writeBehind.save(first);
+        writeBehind.save(notification());
+
+        assertNotNull(first.getId());
+        assertNotNull(first.getCreatedOn());
+        assertEquals(2, writeBehind.pending());
+        verifyNoInteractions(notificationRepository);
+
+        writeBehind.save(notification());
+
+        ArgumentCaptor<List<Notification>> batch = ArgumentCaptor.forClass(List.class);
+        verify(notificationRepository).saveAll(batch.capture());
+        assertEquals(3, batch.getValue().size());
+        assertSame(first, batch.getValue().get(0));
+        verify(bodyStore).storeAll(batch.getValue());
+        assertEquals(0, writeBehind.pending());
+    }
+
+    @Test
+    void flush_shouldFallBackToSingleRowsWhenBatchFails() {
+        Notification invalid = writeBehind.save(notification());
+        Notification unlucky = writeBehind.save(notification());
+        when(notificationRepository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("duplicate"));
+        when(notificationRepository.save(any())).thenAnswer(invocation -> {
+            Notification notification = invocation.getArgument(0);
+            if (notification == invalid) {
+                throw new DataIntegrityViolationException("duplicate");
+            }
+            throw new QueryTimeoutException("timeout");
+        });
+
+        writeBehind.flush();
+
+        verify(notificationRepository).save(invalid);
+        verify(notificationRepository).save(unlucky);
+        verify(bodyStore).store(invalid);
+        verify(bodyStore).store(unlucky);
+        assertEquals(1, writeBehind.pending());
+        assertEquals(1, writeBehind.deadLetters());
+
+        // Backing off: the row that timed out is not retried right away.
+        writeBehind.flush();
+
+        verify(notificationRepository, times(1)).saveAll(anyList());
+        verify(notificationRepository, times(1)).save(unlucky);
+    }
+
+    @Test
+    void save_shouldWriteDirectly_whenBufferStaysFull() {
+        writeBehind = new NotificationWriteBehind(notificationRepository, bodyStore,
+                new NotificationMetrics(new SimpleMeterRegistry(), ObservationRegistry.NOOP),
+                true, 10, 1, 60_000, 60_000, Runnable::run);
+        Notification stuck = writeBehind.save(notification());
+        when(notificationRepository.saveAll(anyList())).thenThrow(new QueryTimeoutException("timeout"));
+        when(notificationRepository.save(any())).thenAnswer(invocation -> {
+            if (invocation.getArgument(0) == stuck) {
+                throw new QueryTimeoutException("timeout");
+            }
+            return invocation.getArgument(0);
+        });
+
+        Notification next = writeBehind.save(notification());
+
+        verify(notificationRepository).save(next);
+        assertEquals(1, writeBehind.pending());
+    }
+
+    @Test
+    void save_shouldReviveDeadLetter_whenSavedAgain() {
+        Notification invalid = writeBehind.save(notification());
+        when(notificationRepository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("duplicate"));
+        when(notificationRepository.save(invalid)).thenThrow(new DataIntegrityViolationException("duplicate"));
+        writeBehind.flush();
+        assertEquals(1, writeBehind.deadLetters());
+
+        writeBehind.save(invalid);
+
+        assertEquals(0, writeBehind.deadLetters());
+        assertEquals(1, writeBehind.pending());
+    }
+
+    @Test
+    void update_shouldReplaceBufferedStateInsteadOfUpdatingRow() {
+        Notification buffered = writeBehind.save(notification());
+
+        int updated = writeBehind.update(buffered, () -> {
+            throw new AssertionError("The row is not written yet");
+        });
+
+        assertEquals(1, updated);
+        assertEquals(1, writeBehind.pending());
+        assertEquals(0, writeBehind.update(notification(), () -> 0));
+    }
+
+    @Test
+    void destroy_shouldDrainBufferAndWriteLaterSavesDirectly() {
+        writeBehind.save(notification());
+
+        writeBehind.destroy();
+        verify(notificationRepository).saveAll(anyList());
+        assertEquals(0, writeBehind.pending());
+
+        Notification late = writeBehind.save(notification());
+        verify(notificationRepository).save(late);
+        assertEquals(0, writeBehind.pending());
+    }
+
+    private Notification notification() {
+        return Notification.builder()
+                .userId(UUID.randomUUID())
+                .subject("Subject")
+                .body("Body")
+                .type(NotificationType.EMAIL)
+                .status(NotificationStatus.PENDING)
+                .build();
+    }
+}
@@ -0,0 +1,195 @@
+package com.dodge_notification.service;
+
+import com.dodge_notification.dto.ScheduledNotification;
+import com.dodge_notification.model.Notification;
+import com.dodge_notification.model.NotificationStatus;
+import com.dodge_notification.model.NotificationType;
+import com.dodge_notification.model.PartitionLease;
+import com.dodge_notification.repository.NotificationRepository;
+import com.dodge_notification.repository.PartitionLeaseRepository;
+import com.dodge_notification.repository.ServiceInstanceRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Several lease managers sharing one database, standing in for instances of the application.
+ * Runs outside a test transaction so each heartbeat commits like it would in production.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class PartitionLeaseManagerIntegrationTest {
+
+    private static final Duration LEASE_TTL = Duration.ofSeconds(15);
+
+    @Autowired
+    private PartitionLeaseRepository leaseRepository;
+
+    @Autowired
+    private ServiceInstanceRepository instanceRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private MutableClock clock;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+    }
+
+    @AfterEach
+    void tearDown() {
+        notificationRepository.deleteAllInBatch();
+        leaseRepository.deleteAllInBatch();
+        instanceRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void heartbeat_shouldSharePartitionsAndRebalanceWhenInstancesJoinAndLeave() {
+        PartitionLeaseManager a = manager("a");
+        PartitionLeaseManager b = manager("b");
+        PartitionLeaseManager c = manager("c");
+
+        settle(a, b, c);
+        assertEvenlyShared(a, b, c);
+
+        PartitionLeaseManager d = manager("d");
+        settle(a, b, c, d);
+        assertEvenlyShared(a, b, c, d);
+
+        a.destroy();
+        settle(b, c, d);
+        assertTrue(a.ownedPartitions().isEmpty());
+        assertEvenlyShared(b, c, d);
+    }
+
+    @Test
+    void heartbeat_shouldTakeOverPartitionsOfAnInstanceThatStoppedHeartbeating() {
+        PartitionLeaseManager a = manager("a");
+        PartitionLeaseManager b = manager("b");
+        settle(a, b);
+
+        clock.advance(LEASE_TTL.plusSeconds(1));
+        PartitionLeaseManager c = manager("c");
+        settle(a, c);
+
+        assertTrue(b.ownedPartitions().isEmpty());
+        assertEvenlyShared(a, c);
+    }
+
+    @Test
+    void ownedPartitions_shouldSplitWorkEvenlyWithoutOverlap() {
+        int instances = 4;
+        int rows = 2_000;
+        LocalDateTime now = LocalDateTime.now(clock);
+        List<Notification> scheduled = IntStream.range(0, rows)
+                .mapToObj(i -> Notification.builder()
+                        .userId(UUID.randomUUID())
+                        .subject("subject")
+                        .createdOn(now)
+                        .type(NotificationType.EMAIL)
+                        .status(NotificationStatus.SCHEDULED)
+                        .sendAt(now.plusSeconds(30))
+                        .build())
+                .toList();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> notificationRepository.saveAll(scheduled));
+
+        PartitionLeaseManager[] managers = IntStream.range(0, instances)
+                .mapToObj(i -> manager("instance-" + i))
+                .toArray(PartitionLeaseManager[]::new);
+        settle(managers);
+
+        Set<UUID> seen = new HashSet<>();
+        for (PartitionLeaseManager manager : managers) {
+            List<ScheduledNotification> work = notificationRepository.findScheduled(NotificationStatus.SCHEDULED,
+                    now, now.plusMinutes(1), manager.ownedPartitions(), Limit.of(rows));
+            // An even share is rows / instances; hashing random users keeps it well within a third of that.
+            assertEquals(rows / instances, work.size(), rows / instances / 3.0);
+            work.forEach(notification -> assertTrue(seen.add(notification.getId())));
+        }
+        assertEquals(rows, seen.size());
+    }
+
+    private PartitionLeaseManager manager(String instanceId) {
+        return new PartitionLeaseManager(leaseRepository, instanceRepository, notificationRepository,
+                new TransactionTemplate(transactionManager), event -> {}, clock, true, instanceId, LEASE_TTL, 5000, 500);
+    }
+
+    /**
+     * Heartbeats every manager a few rounds, one second apart; enough for any join or
+     * departure to settle.
+     */
+    private void settle(PartitionLeaseManager... managers) {
+        for (int round = 0; round < 3; round++) {
+            for (PartitionLeaseManager manager : managers) {
+                manager.heartbeat();
+            }
+            clock.advance(Duration.ofSeconds(1));
+        }
+    }
+
+    private static void assertEvenlyShared(PartitionLeaseManager... managers) {
+        int fairShare = PartitionLease.PARTITIONS / managers.length;
+        List<Integer> all = new ArrayList<>();
+        for (PartitionLeaseManager manager : managers) {
+            Set<Integer> owned = manager.ownedPartitions();
+            assertTrue(owned.size() == fairShare || owned.size() == fairShare + 1,
+                    "%s owns %d partitions".formatted(manager.getInstanceId(), owned.size()));
+            all.addAll(owned);
+        }
+        assertEquals(PartitionLease.PARTITIONS, all.size());
+        assertEquals(PartitionLease.PARTITIONS, new HashSet<>(all).size());
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant = Instant.parse("2026-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.dodge_notification.service;
+
+import com.dodge_notification.dto.PreferenceCacheStats;
+import com.dodge_notification.model.NotificationPreference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PreferenceServiceUnitTest {
+
+    @Mock
+    private PreferenceProvider preferenceProvider;
+
+    private PreferenceService preferenceService;
+
+    @BeforeEach
+    void setUp() {
+        preferenceService = new PreferenceService(preferenceProvider, 2, Duration.ofMinutes(10), Duration.ofMinutes(1));
+    }
+
+    @Test
+    void getPreference_shouldLoadOnceAndServeRepeatedLookupsFromCache() {
+        UUID userId = UUID.randomUUID();
+        NotificationPreference preference = new NotificationPreference(userId, true, "user@mail.bg");
+        when(preferenceProvider.findByUserId(userId)).thenReturn(Optional.of(preference));
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(Optional.of(preference), preferenceService.getPreference(userId));
+        }
+
+        verify(preferenceProvider, times(1)).findByUserId(userId);
+        PreferenceCacheStats stats = preferenceService.getStats();
+        assertEquals(4, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+    }
+
+    @Test
+    void getPreference_shouldCacheMissingPreferences() {
+        UUID userId = UUID.randomUUID();
+        when(preferenceProvider.findByUserId(userId)).thenReturn(Optional.empty());
+
+        assertTrue(preferenceService.getPreference(userId).isEmpty());
+        assertTrue(preferenceService.getPreference(userId).isEmpty());
+
+        verify(preferenceProvider, times(1)).findByUserId(userId);
+    }
+
+    @Test
+    void invalidate_shouldForceReload() {
+        UUID userId = UUID.randomUUID();
+        when(preferenceProvider.findByUserId(userId))
+                .thenReturn(Optional.of(new NotificationPreference(userId, true, "old@mail.bg")))
+                .thenReturn(Optional.of(new NotificationPreference(userId, false, "new@mail.bg")));
+
+        preferenceService.getPreference(userId);
+        preferenceService.invalidate(userId);
+        NotificationPreference reloaded = preferenceService.getPreference(userId).orElseThrow();
+
+        assertFalse(reloaded.isEnabled());
+        verify(preferenceProvider, times(2)).findByUserId(userId);
+    }
+
+    @Test
+    void defaultProvider_shouldReturnEnabledPreferenceForUser() {
+        UUID userId = UUID.randomUUID();
+
+        NotificationPreference preference = new DefaultPreferenceProvider().findByUserId(userId).orElseThrow();
+
+        assertEquals(userId, preference.getUserId());
+        assertTrue(preference.isEnabled());
+        assertEquals("stoyan.stoyanov.kz@mail.bg", preference.getContactInfo());
+    }
+}
@@ -0,0 +1,129 @@
+package com.dodge_notification.service;
+
+import com.dodge_notification.channel.ChannelDispatcher;
+import com.dodge_notification.dto.NotificationStatusEvent;
+import com.dodge_notification.dto.ScheduledNotification;
+import com.dodge_notification.model.Notification;
+import com.dodge_notification.model.NotificationStatus;
+import com.dodge_notification.model.NotificationType;
+import com.dodge_notification.repository.NotificationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ScheduledNotificationDispatcherUnitTest {
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ChannelDispatcher channelDispatcher;
+
+    @Mock
+    private EmailService emailService;
+
+    private ScheduledNotificationDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        RetryPolicy retryPolicy = new RetryPolicy(5, Duration.ofSeconds(30), Duration.ofHours(1), Duration.ofMinutes(5));
+        dispatcher = new ScheduledNotificationDispatcher(notificationRepository, transactionTemplate, channelDispatcher,
+                emailService, retryPolicy, new PartitionLeaseManager(null, null, null, null, null, false, "", Duration.ofSeconds(15), 5000, 500),
+                1, 64, 4, Duration.ofMinutes(5), 1000, 100);
+    }
+
+    @Test
+    void fireDue_shouldClaimLoadedNotificationsAndHandThemToWorkers() throws InterruptedException {
+        Notification scheduled = Notification.builder()
+                .id(UUID.randomUUID())
+                .type(NotificationType.EMAIL)
+                .status(NotificationStatus.SCHEDULED)
+                .sendAt(LocalDateTime.now().minusSeconds(1))
+                .build();
+        when(notificationRepository.findScheduled(eq(NotificationStatus.SCHEDULED), any(), any(), any(), any()))
+                .thenReturn(List.of(scheduled(scheduled.getId(), scheduled.getSendAt())));
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(mock(TransactionStatus.class)));
+        when(notificationRepository.findByIdsForUpdate(List.of(scheduled.getId()), NotificationStatus.SCHEDULED))
+                .thenReturn(List.of(scheduled));
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        when(channelDispatcher.offer(eq(NotificationType.EMAIL), task.capture())).thenReturn(true);
+
+        dispatcher.loadWindow();
+        Thread.sleep(5);
+        dispatcher.fireDue();
+
+        assertEquals(NotificationStatus.PENDING, scheduled.getStatus());
+        assertTrue(scheduled.getNextAttemptAt().isAfter(LocalDateTime.now().plusMinutes(4)));
+        task.getValue().run();
+        verify(emailService, times(1)).redeliver(scheduled);
+    }
+
+    @Test
+    void onStatusChange_shouldOnlyAddNotificationsInsideTheLoadedWindow() {
+        when(notificationRepository.findScheduled(any(), any(), any(), any(), any())).thenReturn(List.of());
+        dispatcher.loadWindow();
+
+        dispatcher.onStatusChange(event(LocalDateTime.now().plusMinutes(1)));
+        dispatcher.onStatusChange(event(LocalDateTime.now().plusHours(1)));
+
+        assertEquals(1, dispatcher.pending());
+    }
+
+    @Test
+    void loadWindow_shouldNotAddNotificationsTwice() {
+        UUID id = UUID.randomUUID();
+        LocalDateTime sendAt = LocalDateTime.now().plusMinutes(1);
+        when(notificationRepository.findScheduled(any(), any(), any(), any(), any())).thenReturn(List.of(scheduled(id, sendAt)));
+
+        dispatcher.loadWindow();
+        dispatcher.onStatusChange(NotificationStatusEvent.builder()
+                .notificationId(id)
+                .status(NotificationStatus.SCHEDULED)
+                .sendAt(sendAt)
+                .build());
+
+        assertEquals(1, dispatcher.pending());
+    }
+
+    private static NotificationStatusEvent event(LocalDateTime sendAt) {
+        return NotificationStatusEvent.builder()
+                .notificationId(UUID.randomUUID())
+                .status(NotificationStatus.SCHEDULED)
+                .sendAt(sendAt)
+                .build();
+    }
+
+    private static ScheduledNotification scheduled(UUID id, LocalDateTime sendAt) {
+        return new ScheduledNotification() {
+            @Override
+            public UUID getId() {
+                return id;
+            }
+
+            @Override
+            public LocalDateTime getSendAt() {
+                return sendAt;
+            }
+        };
+    }
+}
@@ -0,0 +1,72 @@
+package com.dodge_notification.service;
+
+import com.dodge_notification.dto.NotificationStatusEvent;
+import com.dodge_notification.model.NotificationStatus;
+import com.dodge_notification.model.NotificationType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StatusEventStreamTest {
+
+    // Holds writer tasks instead of running them, so subscribers stay behind.
+    private final List<Runnable> pendingWrites = new ArrayList<>();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private StatusEventStream statusEventStream;
+
+    @BeforeEach
+    void setUp() {
+        statusEventStream = new StatusEventStream(2, pendingWrites::add, Duration.ofMinutes(1));
+        statusEventStream.bindTo(registry);
+    }
+
+    @Test
+    void onStatusChange_shouldOnlyWakeMatchingSubscribers() {
+        UUID userId = UUID.randomUUID();
+        UUID notificationId = UUID.randomUUID();
+        statusEventStream.subscribeToUser(userId);
+        statusEventStream.subscribeToUser(UUID.randomUUID());
+        statusEventStream.subscribeToNotification(notificationId);
+
+        statusEventStream.onStatusChange(event(userId, notificationId));
+
+        assertEquals(2, pendingWrites.size());
+    }
+
+    @Test
+    void onStatusChange_shouldDisconnectSubscriber_whenItsBufferIsFull() {
+        UUID userId = UUID.randomUUID();
+        statusEventStream.subscribeToUser(userId);
+
+        for (int i = 0; i < 3; i++) {
+            statusEventStream.onStatusChange(event(userId, UUID.randomUUID()));
+        }
+
+        assertEquals(0, registry.get("notification.events.subscribers").gauge().value());
+        assertEquals(1, registry.get("notification.events.dropped").functionCounter().count());
+
+        pendingWrites.forEach(Runnable::run);
+        pendingWrites.clear();
+        statusEventStream.onStatusChange(event(userId, UUID.randomUUID()));
+        assertTrue(pendingWrites.isEmpty());
+    }
+
+    private static NotificationStatusEvent event(UUID userId, UUID notificationId) {
+        return NotificationStatusEvent.builder()
+                .notificationId(notificationId)
+                .userId(userId)
+                .type(NotificationType.EMAIL)
+                .status(NotificationStatus.SUCCEEDED)
+                .occurredOn(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,106 @@
+package com.dodge_notification.service;
+
+import com.dodge_notification.dto.TemplateRequest;
+import com.dodge_notification.dto.TemplateResponse;
+import com.dodge_notification.exception.InvalidTemplateException;
+import com.dodge_notification.model.Notification;
+import com.dodge_notification.model.NotificationTemplate;
+import com.dodge_notification.repository.NotificationTemplateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TemplateServiceUnitTest {
+
+    @Mock
+    private NotificationTemplateRepository templateRepository;
+
+    private TemplateService templateService;
+
+    @BeforeEach
+    void setUp() {
+        templateService = new TemplateService(templateRepository, 100, Duration.ofMinutes(10), Duration.ofSeconds(30));
+    }
+
+    @Test
+    void register_shouldAddNextVersionInsteadOfOverwriting() {
+        when(templateRepository.findFirstByTemplateIdOrderByVersionDesc("shipped"))
+                .thenReturn(Optional.empty(), Optional.of(template(1, "Hi {{name}}")));
+
+        TemplateResponse first = templateService.register("shipped", new TemplateRequest("Shipped", "Hi {{name}}"));
+        TemplateResponse second = templateService.register("shipped", new TemplateRequest("Shipped", "Dear {{title}} {{name}}"));
+
+        assertEquals(1, first.getVersion());
+        assertEquals(2, second.getVersion());
+        assertEquals(Set.of("title", "name"), second.getVariables());
+        ArgumentCaptor<NotificationTemplate> saved = ArgumentCaptor.forClass(NotificationTemplate.class);
+        verify(templateRepository, times(2)).save(saved.capture());
+        assertEquals(1, saved.getAllValues().get(0).getVersion());
+        assertEquals(2, saved.getAllValues().get(1).getVersion());
+        assertEquals(2, templateService.latestVersion("shipped"));
+    }
+
+    @Test
+    void withBody_shouldRenderVersionTheNotificationWasAcceptedWith() {
+        when(templateRepository.findFirstByTemplateIdOrderByVersionDesc("shipped"))
+                .thenReturn(Optional.empty(), Optional.of(template(1, "Hi {{name}}")));
+        templateService.register("shipped", new TemplateRequest("Shipped", "Hi {{name}}"));
+        templateService.register("shipped", new TemplateRequest("Shipped", "Dear {{title}} {{name}}"));
+
+        Notification accepted = Notification.builder()
+                .subject("Shipped")
+                .templateId("shipped")
+                .templateVersion(1)
+                .variables(Map.of("name", "Stoyan"))
+                .build();
+
+        assertEquals("Hi Stoyan", templateService.withBody(accepted).getBody());
+    }
+
+    @Test
+    void withBody_shouldLoadEvictedVersionFromRepository() {
+        when(templateRepository.findById(new NotificationTemplate.Key("shipped", 3)))
+                .thenReturn(Optional.of(template(3, "Hello {{name}}")));
+
+        Notification retried = Notification.builder()
+                .templateId("shipped")
+                .templateVersion(3)
+                .variables(Map.of("name", "Stoyan"))
+                .build();
+
+        assertEquals("Hello Stoyan", templateService.withBody(retried).getBody());
+    }
+
+    @Test
+    void register_shouldRejectMalformedTemplateWithoutSaving() {
+        assertThrows(InvalidTemplateException.class,
+                () -> templateService.register("shipped", new TemplateRequest("Shipped", "Hi {{name")));
+        assertThrows(InvalidTemplateException.class,
+                () -> templateService.register("shipped", new TemplateRequest("Shipped", null)));
+        verify(templateRepository, never()).save(any());
+    }
+
+    private static NotificationTemplate template(int version, String body) {
+        return NotificationTemplate.builder()
+                .templateId("shipped")
+                .version(version)
+                .subject("Shipped")
+                .body(body)
+                .createdOn(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,49 @@
+package com.dodge_notification.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimerWheelTest {
+
+    @Test
+    void advance_shouldFireItemsInDueOrderAcrossLevels() {
+        TimerWheel<String> wheel = new TimerWheel<>(10, 4, 3, 0);
+
+        wheel.schedule("late", 500);
+        wheel.schedule("soon", 20);
+        wheel.schedule("middle", 130);
+
+        List<String> fired = new ArrayList<>(wheel.advance(100));
+        assertEquals(List.of("soon"), fired);
+
+        fired.addAll(wheel.advance(129));
+        assertEquals(List.of("soon"), fired);
+
+        fired.addAll(wheel.advance(600));
+        assertEquals(List.of("soon", "middle", "late"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void schedule_shouldFireOverdueItemsOnNextTick() {
+        TimerWheel<String> wheel = new TimerWheel<>(10, 4, 2, 1_000);
+
+        wheel.schedule("overdue", 0);
+
+        assertTrue(wheel.advance(1_000).isEmpty());
+        assertEquals(List.of("overdue"), wheel.advance(1_010));
+    }
+
+    @Test
+    void schedule_shouldRejectItemsBeyondTheSpan() {
+        TimerWheel<String> wheel = new TimerWheel<>(10, 4, 2, 0);
+
+        assertTrue(wheel.schedule("edge", wheel.getSpanMillis()));
+        assertFalse(wheel.schedule("too far", 10_000));
+        assertEquals(1, wheel.size());
+    }
+}
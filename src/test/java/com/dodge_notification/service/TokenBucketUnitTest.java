@@ -0,0 +1,106 @@
+package com.dodge_notification.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenBucketUnitTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void tryAcquire_shouldAllowBurstThenReportWaitUntilNextPermit() {
+        TokenBucket bucket = new TokenBucket(1, 3, clock::get);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire());
+        }
+
+        assertEquals(TimeUnit.SECONDS.toNanos(1), bucket.tryAcquire());
+    }
+
+    @Test
+    void tryAcquire_shouldRefillOverTime() {
+        TokenBucket bucket = new TokenBucket(2, 1, clock::get);
+
+        assertEquals(0, bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire() > 0);
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+
+        assertEquals(0, bucket.tryAcquire());
+    }
+
+    @Test
+    void refund_shouldReturnPermit() {
+        TokenBucket bucket = new TokenBucket(1, 1, clock::get);
+
+        assertEquals(0, bucket.tryAcquire());
+        bucket.refund();
+
+        assertEquals(0, bucket.tryAcquire());
+        assertFalse(bucket.isIdle());
+    }
+
+    @Test
+    void tryAcquire_shouldNeverHandOutMoreThanBurstUnderContention() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(0.001, 100, clock::get);
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        for (int t = 0; t < 8; t++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < 1000; i++) {
+                    if (bucket.tryAcquire() == 0) {
+                        granted.incrementAndGet();
+                    }
+                }
+            });
+        }
+
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(100, granted.get());
+    }
+
+    @Test
+    void sendRateLimiter_shouldDeferUserOverLimitWithoutSpendingGlobalPermits() {
+        SendRateLimiter limiter = new SendRateLimiter(true, 1, 2, 0.001, 1);
+        UUID a = UUID.randomUUID();
+
+        assertTrue(limiter.tryAcquire(a).isZero());
+        assertFalse(limiter.tryAcquire(a).isZero());
+        assertTrue(limiter.tryAcquire(UUID.randomUUID()).isZero());
+        assertFalse(limiter.tryAcquire(UUID.randomUUID()).isZero());
+        assertEquals(3, limiter.trackedUsers());
+    }
+
+    @Test
+    void sendRateLimiter_shouldKeepBucketsThatAreStillDrawnFrom() {
+        SendRateLimiter limiter = new SendRateLimiter(true, 1000, 1000, 0.001, 1);
+        UUID busy = UUID.randomUUID();
+        limiter.tryAcquire(busy);
+        limiter.tryAcquire(UUID.randomUUID());
+
+        limiter.evictIdleBuckets();
+
+        assertEquals(2, limiter.trackedUsers());
+        assertFalse(limiter.tryAcquire(busy).isZero());
+    }
+}
@@ -1,31 +1,49 @@
 package com.dodge_notification.web;
 
 import com.dodge_notification.controller.EmailController;
+import com.dodge_notification.dto.BatchItemResult;
+import com.dodge_notification.dto.NotificationResponse;
+import com.dodge_notification.dto.StatusPage;
+import com.dodge_notification.exception.InvalidCursorException;
 import com.dodge_notification.model.Notification;
 import com.dodge_notification.model.NotificationStatus;
 import com.dodge_notification.model.NotificationType;
 import com.dodge_notification.service.EmailService;
+import com.dodge_notification.service.StatusEventStream;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.internal.verification.VerificationModeFactory.times;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(EmailController.class)
@@ -34,6 +52,9 @@ public class EmailControllerApiTest {
     @MockitoBean
     private EmailService emailService;
 
+    @MockitoBean
+    private StatusEventStream statusEventStream;
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -51,7 +72,7 @@ public class EmailControllerApiTest {
                 .deleted(false)
                 .build();
 
-        when(emailService.sendNotificationEmail(any()))
+        when(emailService.sendNotificationEmail(any(), isNull()))
                 .thenReturn(notification);
 
         String requestJson = """
@@ -71,7 +92,7 @@ public class EmailControllerApiTest {
 
     @Test
     void sendNotificationEmail_ShouldReturn400_WhenServiceThrowsIllegalArgument() throws Exception {
-        when(emailService.sendNotificationEmail(any()))
+        when(emailService.sendNotificationEmail(any(), isNull()))
                 .thenThrow(new IllegalArgumentException("Invalid email"));
 
         String requestJson = """
@@ -89,25 +110,98 @@ public class EmailControllerApiTest {
     }
 
 
-
     @Test
-    void checkStatus_ShouldReturn200WithList_WhenStatusesExist() throws Exception {
-
+    void sendNotificationEmail_ShouldReturn202WithId_WhenAsync() throws Exception {
+        UUID notificationId = UUID.randomUUID();
         Notification notification = Notification.builder()
-                .id(UUID.randomUUID())
+                .id(notificationId)
                 .userId(UUID.randomUUID())
-                .subject("Subject")
-                .body("Hello")
+                .subject("Test Subject")
+                .body("Test Body")
                 .createdOn(LocalDateTime.now())
                 .type(NotificationType.EMAIL)
-                .status(NotificationStatus.SUCCEEDED)
+                .status(NotificationStatus.PENDING)
                 .deleted(false)
                 .build();
 
-        when(emailService.getAllStatuses()).thenReturn(List.of(notification));
+        when(emailService.queueNotificationEmail(any(), isNull()))
+                .thenReturn(notification);
+
+        String requestJson = """
+            {
+                "email": "test@test.com",
+                "message": "msg"
+            }
+            """;
+
+        mockMvc.perform(post("/api/emails/notifyAdvanced")
+                        .param("async", "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestJson))
+                .andExpect(status().isAccepted())
+                .andExpect(content().string(notificationId.toString()));
+    }
+
+    @Test
+    void sendNotificationEmail_ShouldPassIdempotencyKeyToService() throws Exception {
+        Notification notification = Notification.builder()
+                .id(UUID.randomUUID())
+                .status(NotificationStatus.SUCCEEDED)
+                .build();
+
+        when(emailService.sendNotificationEmail(any(), eq("order-42")))
+                .thenReturn(notification);
+
+        mockMvc.perform(post("/api/emails/notifyAdvanced")
+                        .header(EmailController.IDEMPOTENCY_KEY_HEADER, "order-42")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Notification status: SUCCEEDED"));
+    }
+
+    @Test
+    void sendNotificationEmails_ShouldReturn200WithPerItemResults() throws Exception {
+        UUID userId = UUID.randomUUID();
+        BatchItemResult result = BatchItemResult.builder()
+                .index(0)
+                .userId(userId)
+                .notificationId(UUID.randomUUID())
+                .status(NotificationStatus.SUCCEEDED)
+                .build();
+
+        when(emailService.sendNotificationEmails(any())).thenReturn(List.of(result));
+
+        String requestJson = """
+            [
+                {
+                    "userId": "%s",
+                    "subject": "subj",
+                    "body": "body"
+                }
+            ]
+            """.formatted(userId);
+
+        mockMvc.perform(post("/api/emails/notifyBatch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestJson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].index").value(0))
+                .andExpect(jsonPath("$[0].notificationId").isNotEmpty())
+                .andExpect(jsonPath("$[0].status").value("SUCCEEDED"));
+    }
+
+
+    @Test
+    void checkStatus_ShouldReturn200WithList_WhenStatusesExist() throws Exception {
+
+        NotificationResponse summary = summary(UUID.randomUUID(), "Subject");
+
+        when(emailService.getStatusPage(isNull(), anyInt())).thenReturn(new StatusPage(List.of(summary), null));
 
         mockMvc.perform(get("/api/emails/status"))
                 .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(EmailController.NEXT_CURSOR_HEADER))
                 .andExpect(jsonPath("$").isNotEmpty())
                 .andExpect(jsonPath("$[0].userId").isNotEmpty())
                 .andExpect(jsonPath("$[0].subject").isNotEmpty())
@@ -120,13 +214,93 @@ public class EmailControllerApiTest {
 
     @Test
     void checkStatus_ShouldReturn200WithEmptyList_WhenNoStatusesExist() throws Exception {
-        when(emailService.getAllStatuses()).thenReturn(Collections.emptyList());
+        when(emailService.getStatusPage(isNull(), anyInt())).thenReturn(new StatusPage(Collections.emptyList(), null));
 
         mockMvc.perform(get("/api/emails/status"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$").isEmpty());
     }
 
+    @Test
+    void checkStatus_ShouldReturnNextCursorHeader_WhenMorePagesExist() throws Exception {
+        NotificationResponse summary = summary(UUID.randomUUID(), "Subject");
+
+        when(emailService.getStatusPage(eq("abc"), eq(1))).thenReturn(new StatusPage(List.of(summary), "def"));
+
+        mockMvc.perform(get("/api/emails/status")
+                        .param("cursor", "abc")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(EmailController.NEXT_CURSOR_HEADER, "def"))
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    void checkStatus_ShouldReturn400_WhenCursorIsInvalid() throws Exception {
+        when(emailService.getStatusPage(eq("broken"), anyInt())).thenThrow(new InvalidCursorException());
+
+        mockMvc.perform(get("/api/emails/status")
+                        .param("cursor", "broken"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void streamStatusEvents_ShouldSubscribeByUser() throws Exception {
+        UUID userId = UUID.randomUUID();
+        when(statusEventStream.subscribeToUser(userId)).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/emails/status/events").param("userId", userId.toString()))
+                .andExpect(request().asyncStarted());
+
+        verify(statusEventStream, times(1)).subscribeToUser(userId);
+    }
+
+    @Test
+    void streamStatusEvents_ShouldReturn400_WhenNoSubscriptionKeyGiven() throws Exception {
+        mockMvc.perform(get("/api/emails/status/events"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void checkUserStatus_ShouldReturnUserPage() throws Exception {
+        UUID userId = UUID.randomUUID();
+        NotificationResponse summary = summary(userId, "Subject");
+
+        when(emailService.getUserStatusPage(eq(userId), isNull(), eq(20))).thenReturn(new StatusPage(List.of(summary), "next"));
+
+        mockMvc.perform(get("/api/emails/status/{userId}", userId))
+                .andExpect(status().isOk())
+                .andExpect(header().string(EmailController.NEXT_CURSOR_HEADER, "next"))
+                .andExpect(jsonPath("$[0].userId").value(userId.toString()));
+    }
+
+    @Test
+    void streamStatus_ShouldWriteOneJsonObjectPerLine() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<NotificationResponse> consumer = invocation.getArgument(0);
+            consumer.accept(summary(UUID.randomUUID(), "First"));
+            consumer.accept(summary(UUID.randomUUID(), "Second"));
+            return null;
+        }).when(emailService).streamStatuses(any());
+
+        MvcResult result = mockMvc.perform(get("/api/emails/status/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"subject\":\"First\""));
+        assertTrue(lines[1].contains("\"subject\":\"Second\""));
+        assertFalse(lines[0].contains("\"id\""));
+    }
+
 
 
     @Test
@@ -140,9 +314,32 @@ public class EmailControllerApiTest {
         verify(emailService, times(1)).clearNotifications(userId);
     }
 
+    @Test
+    void clearNotificationUser_ShouldReturn202_WhenAsync() throws Exception {
+        UUID userId = UUID.randomUUID();
+
+        mockMvc.perform(delete("/api/emails")
+                        .param("userId", userId.toString())
+                        .param("async", "true"))
+                .andExpect(status().isAccepted());
+
+        verify(emailService, times(1)).clearNotificationsAsync(userId);
+    }
+
     @Test
     void clearNotificationUser_ShouldReturn400_WhenUserIdMissing() throws Exception {
         mockMvc.perform(delete("/api/emails"))
                 .andExpect(status().isBadRequest());
     }
+
+    private static NotificationResponse summary(UUID userId, String subject) {
+        return NotificationResponse.builder()
+                .id(UUID.randomUUID())
+                .userId(userId)
+                .subject(subject)
+                .createdOn(LocalDateTime.now())
+                .status(NotificationStatus.SUCCEEDED)
+                .type(NotificationType.EMAIL)
+                .build();
+    }
 }
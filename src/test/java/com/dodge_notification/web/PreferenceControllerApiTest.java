@@ -0,0 +1,73 @@
+package com.dodge_notification.web;
+
+import com.dodge_notification.controller.PreferenceController;
+import com.dodge_notification.dto.PreferenceCacheStats;
+import com.dodge_notification.service.PreferenceService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.internal.verification.VerificationModeFactory.times;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(PreferenceController.class)
+public class PreferenceControllerApiTest {
+
+    @MockitoBean
+    private PreferenceService preferenceService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void invalidateCache_ShouldInvalidateOneUser_WhenUserIdGiven() throws Exception {
+        UUID userId = UUID.randomUUID();
+
+        mockMvc.perform(delete("/api/preferences/cache").param("userId", userId.toString()))
+                .andExpect(status().isOk());
+
+        verify(preferenceService, times(1)).invalidate(userId);
+        verify(preferenceService, never()).invalidateAll();
+    }
+
+    @Test
+    void invalidateCache_ShouldInvalidateEveryone_WhenNoUserIdGiven() throws Exception {
+        mockMvc.perform(delete("/api/preferences/cache"))
+                .andExpect(status().isOk());
+
+        verify(preferenceService, times(1)).invalidateAll();
+        verify(preferenceService, never()).invalidate(any());
+    }
+
+    @Test
+    void invalidateCache_ShouldReturn400_WhenUserIdIsNotAUuid() throws Exception {
+        mockMvc.perform(delete("/api/preferences/cache").param("userId", "not-a-uuid"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void cacheStats_ShouldReturnStats() throws Exception {
+        when(preferenceService.getStats()).thenReturn(PreferenceCacheStats.builder()
+                .size(3)
+                .hitCount(9)
+                .missCount(1)
+                .hitRate(0.9)
+                .build());
+
+        mockMvc.perform(get("/api/preferences/cache/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size").value(3))
+                .andExpect(jsonPath("$.hitRate").value(0.9));
+    }
+}
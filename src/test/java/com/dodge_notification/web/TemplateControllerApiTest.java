@@ -0,0 +1,65 @@
+package com.dodge_notification.web;
+
+import com.dodge_notification.controller.TemplateController;
+import com.dodge_notification.dto.TemplateRequest;
+import com.dodge_notification.dto.TemplateResponse;
+import com.dodge_notification.exception.InvalidTemplateException;
+import com.dodge_notification.service.TemplateService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(TemplateController.class)
+public class TemplateControllerApiTest {
+
+    @MockitoBean
+    private TemplateService templateService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void registerTemplate_ShouldReturnRegisteredVersion() throws Exception {
+        TemplateRequest request = new TemplateRequest("Order {{order}} shipped", "Hi {{name}}");
+        when(templateService.register(eq("shipped"), eq(request))).thenReturn(TemplateResponse.builder()
+                .id("shipped")
+                .version(2)
+                .variables(Set.of("order"))
+                .build());
+
+        mockMvc.perform(put("/api/templates/shipped")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"subject\":\"Order {{order}} shipped\",\"body\":\"Hi {{name}}\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value("shipped"))
+                .andExpect(jsonPath("$.version").value(2))
+                .andExpect(jsonPath("$.variables[0]").value("order"));
+
+        verify(templateService).register(eq("shipped"), eq(request));
+    }
+
+    @Test
+    void registerTemplate_ShouldReturn400WithErrorBody_WhenTemplateIsInvalid() throws Exception {
+        when(templateService.register(eq("shipped"), eq(new TemplateRequest("Shipped", null))))
+                .thenThrow(new InvalidTemplateException("Template shipped needs both a subject and a body."));
+
+        mockMvc.perform(put("/api/templates/shipped")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"subject\":\"Shipped\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400))
+                .andExpect(jsonPath("$.message").value("Template shipped needs both a subject and a body."));
+    }
+}